@@ -0,0 +1,207 @@
+package gregicadditions.machines;
+
+import gregtech.api.capability.impl.FluidTankList;
+import gregtech.api.capability.impl.ItemHandlerList;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeMap;
+import gregtech.api.recipes.builders.SimpleRecipeBuilder;
+import gregtech.api.util.ItemStackHashStrategy;
+import gregtech.api.util.StreamUtils;
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenCustomHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenCustomHashSet;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidRegistry;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.FluidTank;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemStackHandler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static gregtech.api.util.Predicates.not;
+
+/**
+ * Benchmarks for the Processing Array's recipe sizing hot paths, against synthetic buses, tanks and recipe maps.
+ * <p>
+ * Run with {@code ./gradlew jmh}, or {@code ./gradlew jmh -PjmhIncludes=<regex>} for a subset. Results are written
+ * to {@code build/reports/jmh/results.json}. To compare a change, run the same subset on the commit before it and
+ * after it. {@link #findAllItemsInInputs} keeps the scan the input index replaced, as the baseline for the index.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessingArrayBenchmarks {
+
+	/** Distinct items spread over the bus slots */
+	private static final int ITEM_KINDS = 32;
+
+	/** Recipe maps by size, so that forks running several sizes only build each once */
+	private static final Map<Integer, RecipeMap<SimpleRecipeBuilder>> RECIPE_MAPS = new HashMap<>();
+
+	@Param({"1", "4", "16"})
+	public int buses;
+
+	/** Total slots over all buses. Each count divides evenly by each bus count, so every bus gets the same share. */
+	@Param({"16", "64", "144"})
+	public int slots;
+
+	@Param({"10", "100", "1000"})
+	public int recipes;
+
+	private List<IItemHandler> inputBuses;
+	private FluidTankList inputTanks;
+	private List<IItemHandler> changedBus;
+	private ProcessingArrayInputIndex index;
+	private RecipeMap<SimpleRecipeBuilder> recipeMap;
+	private Recipe recipe;
+	private List<ItemStack> itemList;
+	private List<FluidStack> fluidList;
+	private ItemHandlerList combinedBuses;
+
+	// Read from fields so that the JIT can't fold the energy check into a constant
+	private long energyEUt;
+	private int energyDuration;
+	private long energyStored;
+	private long energyCapacity;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Bootstrap.register();
+
+		// Fill every slot, cycling through the item kinds so that the totals combine several slots each
+		inputBuses = new ArrayList<>();
+		itemList = new ArrayList<>();
+		if(slots % buses != 0)
+			throw new IllegalArgumentException(slots + " slots can't be split evenly over " + buses + " buses");
+		int slotsPerBus = slots / buses;
+		for(int b = 0; b < buses; b++) {
+			ItemStackHandler bus = new ItemStackHandler(slotsPerBus);
+			for(int s = 0; s < slotsPerBus; s++) {
+				ItemStack stack = new ItemStack(Items.PAPER, 64, (b * slotsPerBus + s) % ITEM_KINDS);
+				bus.setStackInSlot(s, stack);
+				itemList.add(stack);
+			}
+			inputBuses.add(bus);
+		}
+		changedBus = Collections.singletonList(inputBuses.get(0));
+		combinedBuses = new ItemHandlerList(inputBuses);
+
+		FluidTank water = new FluidTank(new FluidStack(FluidRegistry.WATER, 64000), 64000);
+		FluidTank lava = new FluidTank(new FluidStack(FluidRegistry.LAVA, 64000), 64000);
+		inputTanks = new FluidTankList(false, water, lava);
+		fluidList = Arrays.asList(water.getFluid(), lava.getFluid());
+
+		index = new ProcessingArrayInputIndex();
+		index.update(inputBuses, inputTanks);
+
+		recipeMap = RECIPE_MAPS.computeIfAbsent(recipes, ProcessingArrayBenchmarks::createRecipeMap);
+		recipe = recipeMap.getRecipeList().iterator().next();
+
+		energyEUt = 30L * 16;
+		energyDuration = 100;
+		energyStored = 100_000L;
+		energyCapacity = 1_000_000L;
+	}
+
+	/**
+	 * @return a map of {@code size} recipes, each taking two kinds of paper and some water. Only the first few can
+	 *         run from the synthetic buses, so lookups have to rule out most of the map.
+	 */
+	private static RecipeMap<SimpleRecipeBuilder> createRecipeMap(int size) {
+		RecipeMap<SimpleRecipeBuilder> map = new RecipeMap<>("jmh_" + size,
+		                                                     0, 9, 0, 6,
+		                                                     0, 3, 0, 2,
+		                                                     new SimpleRecipeBuilder());
+		for(int r = 0; r < size; r++)
+			map.recipeBuilder()
+			   .inputs(new ItemStack(Items.PAPER, 1 + r % 3, 2 * r), new ItemStack(Items.PAPER, 2, 2 * r + 1))
+			   .fluidInputs(new FluidStack(FluidRegistry.WATER, 100))
+			   .outputs(new ItemStack(Items.BOOK, 1, r))
+			   .EUt(30)
+			   .duration(100)
+			   .buildAndRegister();
+		return map;
+	}
+
+	/**
+	 * The scan every search ran before the input index, kept here as its baseline: every slot of every bus is
+	 * streamed into a map, then copied into combined stacks.
+	 */
+	@Benchmark
+	public Set<ItemStack> findAllItemsInInputs() {
+		Hash.Strategy<ItemStack> strategy = ItemStackHashStrategy.comparingAllButCount();
+		Set<ItemStack> result = new ObjectOpenCustomHashSet<>(strategy);
+		StreamUtils.streamFrom(combinedBuses)
+		           .filter(not(ItemStack::isEmpty))
+		           .collect(Collectors.toMap(Function.identity(),
+		                                     ItemStack::getCount,
+		                                     Math::addExact,
+		                                     () -> new Object2IntOpenCustomHashMap<>(strategy)))
+		           .entrySet().stream()
+		           .map(entry -> {
+			           ItemStack combined = entry.getKey().copy();
+			           combined.setCount(entry.getValue());
+			           return combined;
+		           })
+		           .forEach(result::add);
+		return result;
+	}
+
+	/** The full scan the index does when the structure forms */
+	@Benchmark
+	public void inputIndexRebuild(Blackhole blackhole) {
+		index.invalidate();
+		index.update(inputBuses, inputTanks);
+		blackhole.consume(index.getItemCounts());
+	}
+
+	/** A single bus changing between searches, the common case */
+	@Benchmark
+	public void inputIndexIncremental(Blackhole blackhole) {
+		ItemStackHandler bus = (ItemStackHandler) inputBuses.get(0);
+		ItemStack stack = bus.getStackInSlot(0);
+		stack.setCount(stack.getCount() == 64 ? 63 : 64);
+		index.markChanged(changedBus, Collections.emptyList());
+		index.update(inputBuses, inputTanks);
+		blackhole.consume(index.getItemCounts());
+	}
+
+	@Benchmark
+	public int minRatioItem() {
+		return TileEntityProcessingArray.ProcessingArrayWorkable.getMinRatioItem(index.getItemCounts(), recipe, 16);
+	}
+
+	@Benchmark
+	public int minRatioFluid() {
+		return TileEntityProcessingArray.ProcessingArrayWorkable.getMinRatioFluid(index.getFluidCounts(), recipe, 16);
+	}
+
+	/** What a recipe cache miss in multiplyRecipe costs on top of the ratio checks */
+	@Benchmark
+	public Recipe multiplyRecipe() {
+		return TileEntityProcessingArray.ProcessingArrayWorkable.buildMultipliedRecipe(recipeMap, recipe, 16, true);
+	}
+
+	@Benchmark
+	public boolean haveEnoughPowerToProceed() {
+		return TileEntityProcessingArray.ProcessingArrayWorkable.hasEnoughEnergyToStart(energyEUt, energyDuration,
+		                                                                                  energyStored, energyCapacity);
+	}
+
+	/** The lookup that precedes multiplication, for scale */
+	@Benchmark
+	public Recipe findRecipe() {
+		return recipeMap.findRecipe(Long.MAX_VALUE, itemList, fluidList, 0);
+	}
+}
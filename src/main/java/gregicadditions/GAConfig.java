@@ -1,5 +1,6 @@
 package gregicadditions;
 
+import gregicadditions.machines.ProcessingArrayMachineRegistry;
 import net.minecraftforge.common.config.Config;
 import net.minecraftforge.common.config.ConfigManager;
 import net.minecraftforge.fml.client.event.ConfigChangedEvent;
@@ -172,6 +173,32 @@ public class GAConfig {
 		public boolean replaceUVwithMAXBat = false;
 	}
 
+	@Config.Comment("Config options shared by the GA multiblocks")
+	public static Multiblocks multiblocks = new Multiblocks();
+
+	public static class Multiblocks {
+
+		@Config.Comment({"Whether the Processing Array, Assembly Line and Fusion Reactor record recipe search times,",
+						"idle reasons and parallels, shown in the advanced section of their display. Default: true"})
+		public boolean enableInstrumentation = true;
+
+		@Config.Comment({"Whether the Assembly Line also accepts the inputs of a recipe in any order, when they don't match a",
+						"recipe in order, one per slice starting next to the controller. Those lookups take longer the more",
+						"recipes there are; in-order lookups take the same time however many there are. Turn this off to",
+						"require the inputs in order, as the real Assembly Line does. Default: true"})
+		public boolean assemblyLineAnyOrder = true;
+
+		@Config.Comment({"Whether an Assembly Line with at least twice the slices a recipe needs runs a copy of it for each",
+						"further group of slices holding a full set of its inputs, in order. The copies share the fluids",
+						"and add up their EU/t, up to what the energy hatches can supply each tick. Default: true"})
+		public boolean assemblyLineParallel = true;
+
+		@Config.Comment({"Whether a formed Assembly Line or Fusion Reactor only checks its structure again once a block of it",
+						"changes or one of its chunks unloads, instead of matching the whole pattern every second. A full",
+						"check still runs every 16 seconds, for blocks changed without a block update. Default: true"})
+		public boolean incrementalStructureChecks = true;
+	}
+
 	@Config.Comment("Config options of the Processing Array")
 	public static ProcessingArray processingArray = new ProcessingArray();
 
@@ -185,6 +212,30 @@ public class GAConfig {
 						"Add the unlocalized Recipe Map name to blacklist the machine."})
 		public String[] machineBlackList = new String[0];
 
+		@Config.Comment({"Number of multiplied recipes each Processing Array keeps cached for reuse.",
+						"Set to 0 to disable the cache. Default: 16"})
+		@Config.RangeInt(min = 0, max = 256)
+		public int recipeCacheSize = 16;
+
+		@Config.Comment({"Number of Machine Access Interfaces a single Processing Array may have.",
+						"Each interface runs its own recipes, sharing the array's buses, hatches and energy. Default: 4"})
+		@Config.RangeInt(min = 1, max = 8)
+		@Config.RequiresWorldRestart
+		public int machineInterfaceLimit = 4;
+
+		@Config.Comment({"Minimum length in ticks of a Processing Array cycle in Batch Mode.",
+						"Shorter recipes are run several times per machine within one cycle. Default: 128"})
+		@Config.RangeInt(min = 1, max = 1200)
+		public int batchModeCycleLength = 128;
+
+		@Config.Comment({"Whether each chanced output of a Processing Array batch is rolled for every operation in it,",
+						"rather than once for the whole batch. Gives a steadier output flow. Default: true"})
+		public boolean binomialChancedOutputs = true;
+
+		@Config.Comment({"Whether single-block generators can be placed in a Processing Array, which then burns their",
+						"fuel and outputs energy through dynamo hatches. Default: true"})
+		public boolean allowGenerators = true;
+
 	}
 
 
@@ -273,6 +324,7 @@ public class GAConfig {
 	static void configChanged(final ConfigChangedEvent.OnConfigChangedEvent event) {
 		if(Tags.MODID.equals(event.getModID())) {
 			ConfigManager.sync(Tags.MODID, Config.Type.INSTANCE);
+			ProcessingArrayMachineRegistry.onConfigChanged();
 		}
 	}
 
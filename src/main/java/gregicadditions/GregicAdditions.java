@@ -6,6 +6,7 @@ import forestry.api.core.ForestryAPI;
 import forestry.core.config.Constants;
 import forestry.modules.ForestryModuleUids;
 import gregicadditions.bees.*;
+import gregicadditions.commands.CommandGregicAdditions;
 import net.minecraft.util.ResourceLocation;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -13,6 +14,8 @@ import org.apache.logging.log4j.Logger;
 import gregicadditions.item.GAMetaBlocks;
 import gregicadditions.item.GAMetaItems;
 import gregicadditions.machines.GATileEntities;
+import gregicadditions.machines.MachineProfiler;
+import gregicadditions.machines.ProcessingArrayMachineRegistry;
 import gregicadditions.recipes.GAMachineRecipeRemoval;
 import gregicadditions.recipes.GARecipeAddition;
 import gregicadditions.recipes.GeneratorFuels;
@@ -33,6 +36,8 @@ import net.minecraftforge.fml.common.SidedProxy;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
+import net.minecraftforge.fml.common.event.FMLServerStoppingEvent;
 import net.minecraftforge.fml.common.eventhandler.EventPriority;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.registries.IForgeRegistry;
@@ -73,6 +78,17 @@ public class GregicAdditions {
 	public void postInit(FMLPostInitializationEvent event) {
 		if (!isForestryBeesDisabled())
 			proxy.postInit();
+		ProcessingArrayMachineRegistry.rebuild();
+	}
+
+	@EventHandler
+	public void serverStarting(FMLServerStartingEvent event) {
+		event.registerServerCommand(new CommandGregicAdditions());
+	}
+
+	@EventHandler
+	public void serverStopping(FMLServerStoppingEvent event) {
+		MachineProfiler.stop();
 	}
 
 	@SubscribeEvent
@@ -0,0 +1,33 @@
+package gregicadditions.commands;
+
+import net.minecraft.command.ICommandSender;
+import net.minecraftforge.server.command.CommandTreeBase;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The {@code /gtadditions} command, under which all of Gregic Additions' subcommands live.
+ */
+public class CommandGregicAdditions extends CommandTreeBase {
+
+	public CommandGregicAdditions() {
+		addSubcommand(new CommandProfile());
+	}
+
+	@Nonnull
+	@Override
+	public String getName() {
+		return "gtadditions";
+	}
+
+	@Nonnull
+	@Override
+	public String getUsage(@Nonnull ICommandSender sender) {
+		return "gtadditions.command.usage";
+	}
+
+	@Override
+	public int getRequiredPermissionLevel() {
+		return 2;
+	}
+}
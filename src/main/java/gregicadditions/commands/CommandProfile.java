@@ -0,0 +1,55 @@
+package gregicadditions.commands;
+
+import gregicadditions.machines.MachineProfiler;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentTranslation;
+
+import javax.annotation.Nonnull;
+
+/**
+ * {@code /gtadditions profile [seconds] [count]}: samples the update cost of every GA machine, then lists the most
+ * expensive ones and writes the full table to a CSV file in the server directory.
+ */
+public class CommandProfile extends CommandBase {
+
+	private static final int DEFAULT_SECONDS = 10;
+	private static final int MAX_SECONDS = 600;
+	private static final int DEFAULT_COUNT = 10;
+	private static final int MAX_COUNT = 100;
+
+	@Nonnull
+	@Override
+	public String getName() {
+		return "profile";
+	}
+
+	@Nonnull
+	@Override
+	public String getUsage(@Nonnull ICommandSender sender) {
+		return "gtadditions.command.profile.usage";
+	}
+
+	@Override
+	public int getRequiredPermissionLevel() {
+		return 2;
+	}
+
+	@Override
+	public void execute(@Nonnull MinecraftServer server, @Nonnull ICommandSender sender, @Nonnull String[] args) throws CommandException {
+		if(args.length > 2)
+			throw new WrongUsageException(getUsage(sender));
+
+		if(MachineProfiler.isRunning())
+			throw new CommandException("gtadditions.command.profile.running");
+
+		int seconds = args.length > 0 ? parseInt(args[0], 1, MAX_SECONDS) : DEFAULT_SECONDS;
+		int count = args.length > 1 ? parseInt(args[1], 1, MAX_COUNT) : DEFAULT_COUNT;
+
+		MachineProfiler.start(sender, seconds * 20, count, server.getDataDirectory());
+		sender.sendMessage(new TextComponentTranslation("gtadditions.command.profile.started", seconds));
+	}
+}
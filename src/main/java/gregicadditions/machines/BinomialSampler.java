@@ -0,0 +1,61 @@
+package gregicadditions.machines;
+
+import java.util.Random;
+
+/**
+ * Draws the number of successes out of a number of independent trials with the same chance, without rolling each
+ * trial. Used to decide how many of a parallel batch's operations produce each chanced output.
+ * <p>
+ * Small expected counts are drawn exactly by inversion, which takes a handful of steps regardless of the number of
+ * trials. Everything else uses the normal approximation, which is accurate once the variance is this large.
+ */
+final class BinomialSampler {
+
+	/** Above this variance, the normal approximation is used */
+	private static final double NORMAL_APPROXIMATION_VARIANCE = 9.0;
+
+	private BinomialSampler() {}
+
+	/**
+	 * @param random the source of randomness
+	 * @param trials the number of trials
+	 * @param chance the chance of each trial succeeding, from 0 to 1
+	 * @return the number of successful trials, from 0 to {@code trials}
+	 */
+	static int sample(Random random, int trials, double chance) {
+		if(trials <= 0 || chance <= 0)
+			return 0;
+		if(chance >= 1)
+			return trials;
+
+		// Sample the rarer outcome, so that the expected count stays small
+		if(chance > 0.5)
+			return trials - sample(random, trials, 1 - chance);
+
+		double variance = trials * chance * (1 - chance);
+		if(variance > NORMAL_APPROXIMATION_VARIANCE) {
+			long successes = Math.round(trials * chance + random.nextGaussian() * Math.sqrt(variance));
+			return (int) Math.max(0, Math.min(trials, successes));
+		}
+
+		return sampleByInversion(random, trials, chance);
+	}
+
+	/**
+	 * Walks up the cumulative distribution until it passes a uniform draw. The expected number of steps is the
+	 * expected count, which is small here.
+	 */
+	private static int sampleByInversion(Random random, int trials, double chance) {
+		double ratio = chance / (1 - chance);
+		double probability = Math.pow(1 - chance, trials);
+		double remaining = random.nextDouble();
+
+		int successes = 0;
+		while(remaining > probability && successes < trials) {
+			remaining -= probability;
+			probability *= ratio * (trials - successes) / (successes + 1);
+			successes++;
+		}
+		return successes;
+	}
+}
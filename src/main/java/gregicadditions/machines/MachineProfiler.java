@@ -0,0 +1,184 @@
+package gregicadditions.machines;
+
+import gregicadditions.GregicAdditions;
+import gregicadditions.Tags;
+import gregtech.api.metatileentity.MetaTileEntity;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentTranslation;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Samples how long the update of each GA machine takes over a number of server ticks, then reports the most expensive
+ * ones and writes every sampled machine to a CSV file.
+ * <p>
+ * While no session is running, a machine's update only pays for reading a static flag.
+ */
+@Mod.EventBusSubscriber(modid = Tags.MODID)
+public class MachineProfiler {
+
+	/** The running session, or {@code null} if there is none */
+	private static Session session = null;
+
+	private MachineProfiler() {}
+
+	/**
+	 * @param metaTileEntity the machine about to update
+	 * @return the time its update starts at, to be passed to {@link #end}, or 0 if it is not being sampled
+	 */
+	public static long begin(MetaTileEntity metaTileEntity) {
+		return session != null && !metaTileEntity.getWorld().isRemote ? System.nanoTime() : 0L;
+	}
+
+	/**
+	 * @param metaTileEntity the machine that updated
+	 * @param startTime      the value {@link #begin} returned
+	 */
+	public static void end(MetaTileEntity metaTileEntity, long startTime) {
+		Session session = MachineProfiler.session;
+		if(startTime == 0L || session == null)
+			return;
+
+		long nanos = System.nanoTime() - startTime;
+		Sample sample = session.samples.get(metaTileEntity);
+		if(sample == null) {
+			sample = new Sample(metaTileEntity);
+			session.samples.put(metaTileEntity, sample);
+		}
+		sample.totalNanos += nanos;
+		sample.maxNanos = Math.max(sample.maxNanos, nanos);
+		sample.updates++;
+	}
+
+	/**
+	 * @return {@code true} if a session is running
+	 */
+	public static boolean isRunning() {
+		return session != null;
+	}
+
+	/**
+	 * Starts sampling. The results are sent to {@code sender} once {@code ticks} server ticks have passed.
+	 *
+	 * @param sender    who to report the results to
+	 * @param ticks     how many server ticks to sample for
+	 * @param topCount  how many machines to report
+	 * @param outputDir the directory the CSV file is written to
+	 */
+	public static void start(ICommandSender sender, int ticks, int topCount, File outputDir) {
+		session = new Session(sender, ticks, topCount, outputDir);
+	}
+
+	/**
+	 * Discards the running session without reporting, e.g. when the server stops. Otherwise it would keep the
+	 * sampled machines and the command sender of the previous world alive, and carry on into the next one.
+	 */
+	public static void stop() {
+		session = null;
+	}
+
+	@SubscribeEvent
+	public static void onServerTick(TickEvent.ServerTickEvent event) {
+		Session session = MachineProfiler.session;
+		if(event.phase != TickEvent.Phase.END || session == null)
+			return;
+
+		if(++session.elapsedTicks >= session.ticks) {
+			MachineProfiler.session = null;
+			session.report();
+		}
+	}
+
+	private static class Session {
+		final ICommandSender sender;
+		final int ticks;
+		final int topCount;
+		final File outputDir;
+		final Reference2ObjectOpenHashMap<MetaTileEntity, Sample> samples = new Reference2ObjectOpenHashMap<>();
+		int elapsedTicks = 0;
+
+		Session(ICommandSender sender, int ticks, int topCount, File outputDir) {
+			this.sender = sender;
+			this.ticks = ticks;
+			this.topCount = topCount;
+			this.outputDir = outputDir;
+		}
+
+		void report() {
+			List<Sample> ranked = new ArrayList<>(samples.values());
+			ranked.sort(Comparator.comparingLong((Sample sample) -> sample.totalNanos).reversed());
+
+			sender.sendMessage(new TextComponentTranslation("gtadditions.command.profile.header",
+			                                                ranked.size(), elapsedTicks, Math.min(topCount, ranked.size())));
+			for(int i = 0; i < ranked.size() && i < topCount; i++) {
+				Sample sample = ranked.get(i);
+				sender.sendMessage(new TextComponentTranslation("gtadditions.command.profile.entry",
+				                                                i + 1,
+				                                                sample.name,
+				                                                sample.dimension,
+				                                                sample.pos.getX(), sample.pos.getY(), sample.pos.getZ(),
+				                                                String.format("%.2f", sample.totalNanos / 1e6),
+				                                                String.format("%.1f", sample.totalNanos / 1e3 / elapsedTicks)));
+			}
+
+			File file = new File(outputDir, "gtadditions-profile-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv");
+			try {
+				writeCsv(file, ranked);
+				sender.sendMessage(new TextComponentTranslation("gtadditions.command.profile.written", file.getPath()));
+			} catch(IOException e) {
+				GregicAdditions.LOGGER.error("Failed to write machine profile to {}", file, e);
+				sender.sendMessage(new TextComponentTranslation("gtadditions.command.profile.write_failed", file.getPath()));
+			}
+		}
+
+		void writeCsv(File file, List<Sample> ranked) throws IOException {
+			try(Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+				writer.write("rank,machine,dimension,x,y,z,total_ms,us_per_tick,max_update_us,updates\n");
+				for(int i = 0; i < ranked.size(); i++) {
+					Sample sample = ranked.get(i);
+					writer.write(String.format("%d,%s,%d,%d,%d,%d,%.3f,%.2f,%.2f,%d%n",
+					                           i + 1,
+					                           sample.name,
+					                           sample.dimension,
+					                           sample.pos.getX(), sample.pos.getY(), sample.pos.getZ(),
+					                           sample.totalNanos / 1e6,
+					                           sample.totalNanos / 1e3 / elapsedTicks,
+					                           sample.maxNanos / 1e3,
+					                           sample.updates));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Update times of a single machine. Its location is captured up front, in case it is removed before the report.
+	 */
+	private static class Sample {
+		final String name;
+		final int dimension;
+		final BlockPos pos;
+		long totalNanos = 0L;
+		long maxNanos = 0L;
+		long updates = 0L;
+
+		Sample(MetaTileEntity metaTileEntity) {
+			this.name = metaTileEntity.metaTileEntityId.toString();
+			this.dimension = metaTileEntity.getWorld().provider.getDimension();
+			this.pos = metaTileEntity.getPos().toImmutable();
+		}
+	}
+}
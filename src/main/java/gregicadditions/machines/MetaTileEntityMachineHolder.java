@@ -80,14 +80,15 @@ public class MetaTileEntityMachineHolder extends MetaTileEntityItemBus implement
         @Override
         public boolean isItemValid(int slot, @Nonnull ItemStack stack) {
 
-            return TileEntityProcessingArray.ProcessingArrayWorkable.findRecipeMapAndCheckValid(stack) != null;
+            // Generators have no recipe map, but can still be used
+            return ProcessingArrayMachineRegistry.getEligible(stack) != null;
 
         }
 
         @Override
         public <T> void addToNotifiedList(MetaTileEntity metaTileEntity, T handler, boolean isExport) {
             if(metaTileEntity instanceof TileEntityProcessingArray && metaTileEntity.isValid())
-                ((TileEntityProcessingArray) metaTileEntity).notifyMachineChanged();
+                ((TileEntityProcessingArray) metaTileEntity).notifyMachineChanged(this);
         }
     }
 }
@@ -0,0 +1,196 @@
+package gregicadditions.machines;
+
+import gregicadditions.GAConfig;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.text.ITextComponent;
+import net.minecraft.util.text.TextComponentTranslation;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static gregtech.api.gui.widgets.AdvancedTextWidget.*;
+
+/**
+ * Counters and timers for a multiblock's recipe logic, shown in a collapsible section of its display text.
+ * <p>
+ * Everything is a plain field update; the clock is only read around recipe searches, which already cost far more.
+ * Nothing is recorded while instrumentation is disabled in the config.
+ */
+public class MultiblockStats {
+
+	/** Length of the window searches per minute are counted over */
+	private static final int TICKS_PER_MINUTE = 1200;
+
+	/** Click data for the toggle that shows or hides the stats */
+	public static final String TOGGLE_CLICK_DATA = "stats";
+
+	/**
+	 * Why a recipe logic did not make progress in a tick.
+	 */
+	public enum IdleReason {
+		/** Not idle */
+		NONE,
+		NO_INPUT,
+		OUTPUT_FULL,
+		NO_ENERGY,
+		/** The machines or structure can't run the recipe, i.e. the logic is jammed */
+		MACHINE_MISMATCH
+	}
+
+	private long searches = 0L;
+	private long searchNanos = 0L;
+	private long recipesStarted = 0L;
+	private long parallelsStarted = 0L;
+
+	/** Ticks recorded for each idle reason, by ordinal; {@link IdleReason#NONE} counts working ticks */
+	private final long[] ticksByReason = new long[IdleReason.values().length];
+
+	private int windowTicks = 0;
+	private long searchesAtWindowStart = 0L;
+	/** Searches during the last full minute, or -1 until one has passed */
+	private long searchesLastMinute = -1L;
+
+	/** Whether the stats are shown in the display text */
+	private boolean expanded = false;
+
+	public static boolean isEnabled() {
+		return GAConfig.multiblocks.enableInstrumentation;
+	}
+
+	/**
+	 * @param progressing whether the logic has a recipe in progress
+	 * @param jammed      whether the logic is jammed
+	 * @param noEnergy    whether the logic lacks the energy to continue or start its recipe
+	 * @param outputsFull whether the outputs had no room for the last recipe found
+	 * @return what the logic was doing, with the reason that best explains an idle tick
+	 */
+	public static IdleReason classify(boolean progressing, boolean jammed, boolean noEnergy, boolean outputsFull) {
+		if(jammed)
+			return IdleReason.MACHINE_MISMATCH;
+		if(noEnergy)
+			return IdleReason.NO_ENERGY;
+		if(progressing)
+			return IdleReason.NONE;
+		return outputsFull ? IdleReason.OUTPUT_FULL : IdleReason.NO_INPUT;
+	}
+
+	/**
+	 * Advances the searches per minute window. Call once per controller tick.
+	 */
+	public void update() {
+		if(!isEnabled())
+			return;
+
+		if(++windowTicks >= TICKS_PER_MINUTE) {
+			searchesLastMinute = searches - searchesAtWindowStart;
+			searchesAtWindowStart = searches;
+			windowTicks = 0;
+		}
+	}
+
+	/**
+	 * @return the time a search starts at, to be passed to {@link #endSearch}
+	 */
+	public long startSearch() {
+		return isEnabled() ? System.nanoTime() : 0L;
+	}
+
+	/**
+	 * @param startTime the value {@link #startSearch} returned
+	 */
+	public void endSearch(long startTime) {
+		if(!isEnabled() || startTime == 0L)
+			return;
+
+		searches++;
+		searchNanos += System.nanoTime() - startTime;
+	}
+
+	/**
+	 * @param reason what a recipe logic was doing in this tick
+	 */
+	public void recordTick(IdleReason reason) {
+		if(isEnabled())
+			ticksByReason[reason.ordinal()]++;
+	}
+
+	/**
+	 * @param parallels the number of parallel operations in the recipe that was started
+	 */
+	public void recordRecipeStarted(int parallels) {
+		if(!isEnabled())
+			return;
+
+		recipesStarted++;
+		parallelsStarted += parallels;
+	}
+
+	/**
+	 * Discards everything recorded so far, e.g. when the structure is reformed.
+	 */
+	public void reset() {
+		searches = 0L;
+		searchNanos = 0L;
+		recipesStarted = 0L;
+		parallelsStarted = 0L;
+		Arrays.fill(ticksByReason, 0L);
+		windowTicks = 0;
+		searchesAtWindowStart = 0L;
+		searchesLastMinute = -1L;
+	}
+
+	public void toggleExpanded() {
+		expanded = !expanded;
+	}
+
+	/**
+	 * Adds the show/hide toggle and, if shown, the stats.
+	 */
+	public void addDisplayText(List<ITextComponent> textList) {
+		if(!isEnabled())
+			return;
+
+		String toggleKey = "gtadditions.multiblock.stats." + (expanded ? "hide" : "show");
+		ITextComponent toggle = withButton(new TextComponentTranslation(toggleKey), TOGGLE_CLICK_DATA);
+		textList.add(new TextComponentTranslation("gtadditions.multiblock.stats").appendText(" ").appendSibling(toggle));
+
+		if(!expanded)
+			return;
+
+		// Until a minute has passed, extrapolate from the partial window
+		long searchesPerMinute = searchesLastMinute >= 0 ? searchesLastMinute :
+			(searches - searchesAtWindowStart) * TICKS_PER_MINUTE / Math.max(1, windowTicks);
+		textList.add(new TextComponentTranslation("gtadditions.multiblock.stats.search",
+		                                          searchesPerMinute,
+		                                          format(searches == 0 ? 0 : searchNanos / 1000.0 / searches)));
+
+		textList.add(new TextComponentTranslation("gtadditions.multiblock.stats.parallels",
+		                                          format(recipesStarted == 0 ? 0 : parallelsStarted / (double) recipesStarted)));
+
+		long totalTicks = 0L;
+		for(long ticks : ticksByReason)
+			totalTicks += ticks;
+		textList.add(new TextComponentTranslation("gtadditions.multiblock.stats.idle",
+		                                          percent(totalTicks - ticksByReason[IdleReason.NONE.ordinal()], totalTicks),
+		                                          percent(ticksByReason[IdleReason.NO_INPUT.ordinal()], totalTicks),
+		                                          percent(ticksByReason[IdleReason.OUTPUT_FULL.ordinal()], totalTicks),
+		                                          percent(ticksByReason[IdleReason.NO_ENERGY.ordinal()], totalTicks),
+		                                          percent(ticksByReason[IdleReason.MACHINE_MISMATCH.ordinal()], totalTicks)));
+	}
+
+	private static String format(double value) {
+		return String.format("%.1f", value);
+	}
+
+	private static String percent(long ticks, long totalTicks) {
+		return format(totalTicks == 0 ? 0 : ticks * 100.0 / totalTicks);
+	}
+
+	public void writeToNBT(NBTTagCompound data) {
+		data.setBoolean("ShowStats", expanded);
+	}
+
+	public void readFromNBT(NBTTagCompound data) {
+		expanded = data.getBoolean("ShowStats");
+	}
+}
@@ -0,0 +1,278 @@
+package gregicadditions.machines;
+
+import gregtech.api.capability.IMultipleTankHandler;
+import gregtech.api.capability.impl.ItemHandlerList;
+import gregtech.api.util.ItemStackHashStrategy;
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.objects.*;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.IFluidTank;
+import net.minecraftforge.fluids.capability.IFluidHandler;
+import net.minecraftforge.items.IItemHandler;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Running totals of the items and fluids available to a Processing Array, kept per input bus and combined.
+ * <p>
+ * Buses and tanks are only rescanned after they show up in the controller's notified input lists, and only the
+ * slots whose contents differ from the last scan touch the totals. Reading the totals never allocates.
+ */
+public class ProcessingArrayInputIndex {
+
+	private static final Hash.Strategy<ItemStack> ITEM_STRATEGY = ItemStackHashStrategy.comparingAllButCount();
+
+	/** Combined item totals across every bus */
+	private final Object2IntOpenCustomHashMap<ItemStack> itemTotals = new Object2IntOpenCustomHashMap<>(ITEM_STRATEGY);
+
+	/** Combined fluid totals across every input tank */
+	private final Object2IntOpenHashMap<Fluid> fluidTotals = new Object2IntOpenHashMap<>();
+
+	/** Per-bus indices, keyed by the handler the bus registered as its ability */
+	private final Reference2ObjectOpenHashMap<IItemHandler, BusIndex> buses = new Reference2ObjectOpenHashMap<>();
+
+	/** Maps each handler that can appear in the notified list to the bus index that contains it */
+	private final Reference2ObjectOpenHashMap<IItemHandler, BusIndex> handlerToBus = new Reference2ObjectOpenHashMap<>();
+
+	/** Fluid contents of each input tank as of the last scan */
+	private final Reference2ObjectOpenHashMap<IFluidTank, FluidStack> tankSnapshots = new Reference2ObjectOpenHashMap<>();
+
+	private final ReferenceOpenHashSet<BusIndex> dirtyBuses = new ReferenceOpenHashSet<>();
+	private final ReferenceOpenHashSet<IFluidTank> dirtyTanks = new ReferenceOpenHashSet<>();
+
+	/** Set when the set of buses or tanks may have changed, e.g. after the structure was reformed */
+	private boolean needsRebuild = true;
+
+	/** Set when a notified fluid handler could not be matched to a known tank */
+	private boolean allTanksDirty = false;
+
+	/** Incremented whenever a fluid total changes */
+	private long fluidModCount = 0L;
+
+	/** {@link #fluidModCount} as of the last full rebuild, when every fluid is considered changed */
+	private long fluidRebuildModCount = 0L;
+
+	/** {@link #fluidModCount} as of each fluid's last change */
+	private final Object2LongOpenHashMap<Fluid> fluidLastChanged = new Object2LongOpenHashMap<>();
+
+	/**
+	 * Discards all tracked state. The next {@link #update} performs a full scan.
+	 */
+	public void invalidate() {
+		needsRebuild = true;
+	}
+
+	/**
+	 * Records which buses and tanks changed, based on the controller's notified input lists.
+	 * The lists are only read, never cleared.
+	 */
+	public void markChanged(List<? extends IItemHandler> notifiedItems, List<? extends IFluidHandler> notifiedFluids) {
+		if(needsRebuild)
+			return;
+
+		for(int i = 0; i < notifiedItems.size(); i++) {
+			BusIndex bus = handlerToBus.get(notifiedItems.get(i));
+			if(bus != null)
+				dirtyBuses.add(bus);
+			else
+				needsRebuild = true;
+		}
+
+		for(int i = 0; i < notifiedFluids.size(); i++) {
+			IFluidHandler handler = notifiedFluids.get(i);
+			if(handler instanceof IFluidTank tank && tankSnapshots.containsKey(tank))
+				dirtyTanks.add(tank);
+			else
+				allTanksDirty = true;
+		}
+	}
+
+	/**
+	 * Brings the totals up to date, rescanning only what was marked as changed.
+	 *
+	 * @param inputBuses  the controller's item input abilities
+	 * @param fluidInputs the controller's combined fluid inputs
+	 */
+	public void update(List<? extends IItemHandler> inputBuses, IMultipleTankHandler fluidInputs) {
+		if(needsRebuild) {
+			rebuild(inputBuses, fluidInputs);
+			return;
+		}
+
+		if(!dirtyBuses.isEmpty()) {
+			for(BusIndex bus : dirtyBuses)
+				bus.rescan();
+			dirtyBuses.clear();
+		}
+
+		if(allTanksDirty) {
+			for(IFluidTank tank : fluidInputs)
+				rescanTank(tank);
+			allTanksDirty = false;
+			dirtyTanks.clear();
+		} else if(!dirtyTanks.isEmpty()) {
+			for(IFluidTank tank : dirtyTanks)
+				rescanTank(tank);
+			dirtyTanks.clear();
+		}
+	}
+
+	/**
+	 * @return the combined count of every distinct item across all buses
+	 */
+	@Nonnull
+	public Object2IntOpenCustomHashMap<ItemStack> getItemCounts() {
+		return itemTotals;
+	}
+
+	/**
+	 * @param inputs either one of the controller's input buses, or the combined input inventory
+	 * @return the item counts for that bus, or the combined counts if {@code inputs} is not a single bus
+	 */
+	@Nonnull
+	public Object2IntOpenCustomHashMap<ItemStack> getItemCounts(IItemHandler inputs) {
+		BusIndex bus = buses.get(inputs);
+		return bus == null ? itemTotals : bus.counts;
+	}
+
+	/**
+	 * @return the combined amount of every distinct fluid across all input tanks
+	 */
+	@Nonnull
+	public Object2IntOpenHashMap<Fluid> getFluidCounts() {
+		return fluidTotals;
+	}
+
+	/**
+	 * @return a counter that increases whenever any fluid total changes
+	 */
+	public long getFluidModCount() {
+		return fluidModCount;
+	}
+
+	/**
+	 * @param fluid the fluid to look up
+	 * @return the value of {@link #getFluidModCount()} when the total of {@code fluid} last changed
+	 */
+	public long getFluidLastChanged(Fluid fluid) {
+		return Math.max(fluidRebuildModCount, fluidLastChanged.getLong(fluid));
+	}
+
+	private void rebuild(List<? extends IItemHandler> inputBuses, IMultipleTankHandler fluidInputs) {
+		itemTotals.clear();
+		fluidTotals.clear();
+		fluidLastChanged.clear();
+		fluidRebuildModCount = ++fluidModCount;
+		buses.clear();
+		handlerToBus.clear();
+		tankSnapshots.clear();
+		dirtyBuses.clear();
+		dirtyTanks.clear();
+		allTanksDirty = false;
+
+		for(IItemHandler handler : inputBuses) {
+			BusIndex bus = new BusIndex(handler);
+			buses.put(handler, bus);
+			handlerToBus.put(handler, bus);
+			if(handler instanceof ItemHandlerList ihl)
+				for(IItemHandler backingHandler : ihl.getBackingHandlers())
+					handlerToBus.put(backingHandler, bus);
+			bus.rescan();
+		}
+
+		for(IFluidTank tank : fluidInputs)
+			rescanTank(tank);
+
+		needsRebuild = false;
+	}
+
+	private void rescanTank(IFluidTank tank) {
+		FluidStack previous = tankSnapshots.get(tank);
+		FluidStack current = tank.getFluid();
+
+		if(previous == null ? current == null : previous.isFluidStackIdentical(current))
+			return;
+
+		fluidModCount++;
+		if(previous != null) {
+			addTo(fluidTotals, previous.getFluid(), -previous.amount);
+			fluidLastChanged.put(previous.getFluid(), fluidModCount);
+		}
+		if(current != null) {
+			addTo(fluidTotals, current.getFluid(), current.amount);
+			fluidLastChanged.put(current.getFluid(), fluidModCount);
+		}
+
+		tankSnapshots.put(tank, current == null ? null : current.copy());
+	}
+
+	private static <K> void addTo(Object2IntOpenHashMap<K> map, K key, int amount) {
+		if(map.addTo(key, amount) + amount <= 0)
+			map.removeInt(key);
+	}
+
+	private static void addTo(Object2IntOpenCustomHashMap<ItemStack> map, ItemStack key, int amount) {
+		if(map.addTo(key, amount) + amount <= 0)
+			map.removeInt(key);
+	}
+
+	/**
+	 * Slot snapshot and item counts for a single input bus.
+	 */
+	private class BusIndex {
+		private final IItemHandler handler;
+		private final Object2IntOpenCustomHashMap<ItemStack> counts = new Object2IntOpenCustomHashMap<>(ITEM_STRATEGY);
+		/** Copy of each slot's contents as of the last scan, with the count tracked separately */
+		private ItemStack[] slotKeys = new ItemStack[0];
+		private int[] slotCounts = new int[0];
+
+		BusIndex(IItemHandler handler) {
+			this.handler = handler;
+		}
+
+		void rescan() {
+			int slots = handler.getSlots();
+			if(slots != slotKeys.length) {
+				// the handler was resized; drop what we knew about it and count it from scratch
+				for(int i = 0; i < slotKeys.length; i++)
+					if(slotCounts[i] > 0)
+						addTo(itemTotals, slotKeys[i], -slotCounts[i]);
+				counts.clear();
+				slotKeys = new ItemStack[slots];
+				slotCounts = new int[slots];
+				Arrays.fill(slotKeys, ItemStack.EMPTY);
+			}
+
+			for(int i = 0; i < slots; i++) {
+				ItemStack stack = handler.getStackInSlot(i);
+				int count = stack.isEmpty() ? 0 : stack.getCount();
+				ItemStack previous = slotKeys[i];
+				int previousCount = slotCounts[i];
+
+				boolean sameItem = count > 0 && previousCount > 0 && ITEM_STRATEGY.equals(previous, stack);
+				if(sameItem && count == previousCount)
+					continue;
+
+				if(previousCount > 0) {
+					addTo(counts, previous, -previousCount);
+					addTo(itemTotals, previous, -previousCount);
+				}
+
+				if(count > 0) {
+					// only copy when the item itself changed; a count change keeps the existing key
+					ItemStack key = sameItem ? previous : stack.copy();
+					addTo(counts, key, count);
+					addTo(itemTotals, key, count);
+					slotKeys[i] = key;
+				} else
+					slotKeys[i] = ItemStack.EMPTY;
+
+				slotCounts[i] = count;
+			}
+		}
+	}
+}
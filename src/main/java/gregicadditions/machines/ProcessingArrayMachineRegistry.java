@@ -0,0 +1,302 @@
+package gregicadditions.machines;
+
+import gregicadditions.GAConfig;
+import gregtech.api.GregTechAPI;
+import gregtech.api.block.machines.MachineItemBlock;
+import gregtech.api.metatileentity.ITieredMetaTileEntity;
+import gregtech.api.metatileentity.MetaTileEntity;
+import gregtech.api.metatileentity.SimpleGeneratorMetaTileEntity;
+import gregtech.api.recipes.CountableIngredient;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeBuilder;
+import gregtech.api.recipes.RecipeMap;
+import gregtech.api.recipes.builders.*;
+import gregtech.api.recipes.machines.FuelRecipeMap;
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenCustomHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.oredict.OreDictionary;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves which machines can be placed in a Processing Array, and with which recipe map and tier.
+ * Single-block generators resolve to their fuel recipe map instead.
+ * <p>
+ * Every registered {@link MetaTileEntity} is resolved once after initialization, so lookups from the machine
+ * holder, display text and recipe logic are a single map access by item damage. The registry is rebuilt when the
+ * config changes, since the blacklist affects eligibility. That happens on the client thread while the integrated
+ * server may be looking machines up, so each build fills a new map, which then replaces the old one whole.
+ */
+public class ProcessingArrayMachineRegistry {
+
+	/**
+	 * Resolved machines, keyed by the metadata of their {@link MachineItemBlock} stack, or {@code null} until first
+	 * built. Never modified once published.
+	 */
+	@Nullable
+	private static volatile Int2ObjectMap<MachineEntry> entries = null;
+
+	/** The fluid dependencies of each recipe map used so far, built on first use */
+	private static final Map<RecipeMap<?>, FluidDependencies> FLUID_DEPENDENCIES = new ConcurrentHashMap<>();
+
+	private ProcessingArrayMachineRegistry() {}
+
+	/**
+	 * Resolves every registered machine. Called on post-init and whenever the config changes.
+	 *
+	 * @return the new entries, which lookups see from now on
+	 */
+	public static Int2ObjectMap<MachineEntry> rebuild() {
+		Int2ObjectOpenHashMap<MachineEntry> built = new Int2ObjectOpenHashMap<>();
+		Set<String> blacklist = new ObjectOpenHashSet<>(Arrays.asList(GAConfig.processingArray.machineBlackList));
+
+		for(MetaTileEntity mte : GregTechAPI.META_TILE_ENTITY_REGISTRY) {
+			ItemStack stack = mte.getStackForm();
+			String recipeMapName = findRecipeMapName(stack.getItem().getUnlocalizedNameInefficiently(stack));
+			RecipeMap<?> rmap = RecipeMap.getByName(recipeMapName);
+			int tier = mte instanceof ITieredMetaTileEntity tmte ? tmte.getTier() : 0;
+
+			if(rmap != null) {
+				boolean eligible = !blacklist.contains(recipeMapName) && isSupportedRecipeMap(rmap);
+				built.put(stack.getItemDamage(), new MachineEntry(mte, rmap, null, tier, eligible));
+				continue;
+			}
+
+			// Generators burn fuel from a fuel recipe map rather than running recipes
+			FuelRecipeMap fuelMap = mte instanceof SimpleGeneratorMetaTileEntity ? FuelRecipeMap.getByName(recipeMapName) : null;
+			if(fuelMap != null) {
+				boolean eligible = !blacklist.contains(recipeMapName) && GAConfig.processingArray.allowGenerators;
+				built.put(stack.getItemDamage(), new MachineEntry(mte, null, fuelMap, tier, eligible));
+			}
+
+			// Otherwise not a recipe-map machine (or not one we can identify by name)
+		}
+
+		Int2ObjectMap<MachineEntry> published = Int2ObjectMaps.unmodifiable(built);
+		entries = published;
+		return published;
+	}
+
+	/**
+	 * Rebuilds the registry if it has already been built; before that, the first lookup builds it.
+	 */
+	public static void onConfigChanged() {
+		if(entries != null)
+			rebuild();
+	}
+
+	/**
+	 * @param machineStack the stack to look up
+	 * @return the resolved machine, or {@code null} if the stack is not a machine with a known recipe map.
+	 */
+	@Nullable
+	public static MachineEntry get(ItemStack machineStack) {
+		if(machineStack == null || machineStack.isEmpty() || !(machineStack.getItem() instanceof MachineItemBlock))
+			return null;
+
+		// Read once, so that a rebuild in between can't be seen halfway
+		Int2ObjectMap<MachineEntry> entries = ProcessingArrayMachineRegistry.entries;
+		if(entries == null)
+			entries = rebuild();
+
+		return entries.get(machineStack.getItemDamage());
+	}
+
+	/**
+	 * @param machineStack the stack to look up
+	 * @return the resolved machine if it can be used in a Processing Array, otherwise {@code null}.
+	 */
+	@Nullable
+	public static MachineEntry getEligible(ItemStack machineStack) {
+		MachineEntry entry = get(machineStack);
+		return entry != null && entry.eligible ? entry : null;
+	}
+
+	/**
+	 * @param recipeMap the recipe map of a Processing Array's machines
+	 * @return which fluids the recipes of {@code recipeMap} use alongside each item. Rebuilt when the recipes are no
+	 *         longer the ones it was built from, as recipe maps don't report their changes.
+	 */
+	@Nonnull
+	public static FluidDependencies getFluidDependencies(RecipeMap<?> recipeMap) {
+		Collection<Recipe> recipes = recipeMap.getRecipeList();
+		FluidDependencies dependencies = FLUID_DEPENDENCIES.get(recipeMap);
+		if(dependencies == null || !dependencies.isBuiltFrom(recipes)) {
+			dependencies = new FluidDependencies(recipes);
+			FLUID_DEPENDENCIES.put(recipeMap, dependencies);
+		}
+		return dependencies;
+	}
+
+	/**
+	 * Ensures that the Processing Array only works on SimpleRecipeBuilders.
+	 * For some reason GTCE has specialized recipe maps for some machines, when it does not need them
+	 */
+	private static boolean isSupportedRecipeMap(RecipeMap<?> rmap) {
+		RecipeBuilder<?> rbuilder = rmap.recipeBuilder();
+		return rbuilder instanceof SimpleRecipeBuilder ||
+			rbuilder instanceof IntCircuitRecipeBuilder ||
+			rbuilder instanceof ArcFurnaceRecipeBuilder ||
+			rbuilder instanceof CutterRecipeBuilder ||
+			rbuilder instanceof UniversalDistillationRecipeBuilder;
+	}
+
+	static String findRecipeMapName(String unlocalizedName) {
+
+		// Machine names are of the form "modid.machine.name.tier"; anything else can't be matched to a map
+		if(unlocalizedName.lastIndexOf(".") < 0)
+			return unlocalizedName;
+
+		String trimmedName = unlocalizedName.substring(0, unlocalizedName.lastIndexOf("."));
+		trimmedName = trimmedName.substring(trimmedName.lastIndexOf(".") + 1);
+
+		//Catch some cases where the machine's name is not the same as its recipe map's name
+		trimmedName = switch(trimmedName) {
+			case "cutter" -> "cutting_saw";
+			case "electric_furnace" -> "furnace";
+			case "ore_washer" -> "orewasher";
+			case "brewery" -> "brewer";
+			default -> trimmedName;
+		};
+
+		return trimmedName;
+	}
+
+	/**
+	 * What a Processing Array needs to know about a machine placed in its holder.
+	 */
+	public static final class MachineEntry {
+		/** The machine itself, as registered, or {@code null} for a machine that isn't registered */
+		@Nullable
+		public final MetaTileEntity metaTileEntity;
+		/** The recipe map the machine's recipes come from, or {@code null} for a generator */
+		@Nullable
+		public final RecipeMap<?> recipeMap;
+		/** The fuels a generator burns, or {@code null} for any other machine */
+		@Nullable
+		public final FuelRecipeMap fuelRecipeMap;
+		/** The GTValues.V tier ordinal for the machine's tier */
+		public final int tier;
+		/** Whether the machine may be used in a Processing Array */
+		public final boolean eligible;
+
+		MachineEntry(@Nullable MetaTileEntity metaTileEntity, @Nullable RecipeMap<?> recipeMap, @Nullable FuelRecipeMap fuelRecipeMap, int tier, boolean eligible) {
+			this.metaTileEntity = metaTileEntity;
+			this.recipeMap = recipeMap;
+			this.fuelRecipeMap = fuelRecipeMap;
+			this.tier = tier;
+			this.eligible = eligible;
+		}
+
+		/**
+		 * @return {@code true} if the machine is a generator, which burns fuel instead of running recipes
+		 */
+		public boolean isGenerator() {
+			return fuelRecipeMap != null;
+		}
+
+		/**
+		 * @return the unlocalized name of the machine's recipe map or fuel recipe map
+		 */
+		@Nonnull
+		public String getMapName() {
+			return recipeMap != null ? recipeMap.unlocalizedName : fuelRecipeMap.unlocalizedName;
+		}
+	}
+
+	/**
+	 * The fluids that the recipes of one recipe map use alongside each item. Collecting them for the items on a bus
+	 * gives every fluid that could make a recipe appear on that bus, and possibly a few more, without going through
+	 * the recipes.
+	 */
+	public static final class FluidDependencies {
+
+		/** Keys on item and damage only */
+		private static final Hash.Strategy<ItemStack> KEY_STRATEGY = new Hash.Strategy<ItemStack>() {
+			@Override
+			public int hashCode(ItemStack stack) {
+				return stack == null ? 0 : 31 * Item.getIdFromItem(stack.getItem()) + stack.getMetadata();
+			}
+
+			@Override
+			public boolean equals(ItemStack a, ItemStack b) {
+				if(a == b)
+					return true;
+				return a != null && b != null && a.getItem() == b.getItem() && a.getMetadata() == b.getMetadata();
+			}
+		};
+
+		/** The recipes this was built from, by identity */
+		private final Set<Recipe> recipes;
+
+		/** The fluids of the recipes taking each item, wildcard damage included */
+		private final Object2ObjectOpenCustomHashMap<ItemStack, Set<Fluid>> fluidsByItem = new Object2ObjectOpenCustomHashMap<>(KEY_STRATEGY);
+
+		/** The fluids of recipes that no item leads to, e.g. ones without item inputs, which any bus may need */
+		private final Set<Fluid> unindexedFluids = new ReferenceOpenHashSet<>();
+
+		private FluidDependencies(Collection<Recipe> recipes) {
+			this.recipes = new ReferenceOpenHashSet<>(recipes);
+
+			for(Recipe recipe : recipes) {
+				if(recipe.getFluidInputs().isEmpty())
+					continue;
+
+				// A recipe needs all its items, so it is enough to reach it through any of them
+				boolean indexed = false;
+				for(CountableIngredient input : recipe.getInputs())
+					for(ItemStack stack : input.getIngredient().getMatchingStacks()) {
+						Set<Fluid> fluids = fluidsByItem.get(stack);
+						if(fluids == null)
+							fluidsByItem.put(stack.copy(), fluids = new ReferenceOpenHashSet<>());
+						for(FluidStack fs : recipe.getFluidInputs())
+							fluids.add(fs.getFluid());
+						indexed = true;
+					}
+
+				if(!indexed)
+					for(FluidStack fs : recipe.getFluidInputs())
+						unindexedFluids.add(fs.getFluid());
+			}
+		}
+
+		/**
+		 * @return {@code true} if {@code recipes} are the same recipes this was built from. Checking the count alone
+		 *         would miss a recipe removed and another added in its place.
+		 */
+		boolean isBuiltFrom(Collection<Recipe> recipes) {
+			return recipes.size() == this.recipes.size() && this.recipes.containsAll(recipes);
+		}
+
+		/**
+		 * @param items  the items on a bus
+		 * @param fluids where to add the fluids of every recipe that takes any of {@code items}
+		 */
+		public void collect(Collection<ItemStack> items, Set<Fluid> fluids) {
+			fluids.addAll(unindexedFluids);
+			for(ItemStack stack : items) {
+				Set<Fluid> found = fluidsByItem.get(stack);
+				if(found != null)
+					fluids.addAll(found);
+				found = fluidsByItem.get(new ItemStack(stack.getItem(), 1, OreDictionary.WILDCARD_VALUE));
+				if(found != null)
+					fluids.addAll(found);
+			}
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package gregicadditions.machines;
+
+import gregicadditions.GregicAdditions;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Java Flight Recorder events for the recipe logic of GA multiblocks, so that their hot paths can be lined up with GC
+ * pauses and tick spikes in a recording.
+ * <p>
+ * The mod is built for Java 8, which has no {@code jdk.jfr} API, so the event types are defined at runtime through
+ * {@code jdk.jfr.EventFactory} when it is available. On a JVM without it, or while no recording has the events
+ * enabled, {@link Type#begin()} returns {@code null} and nothing else is done.
+ * <p>
+ * Every event carries the recipe map, the number of parallels, the recipe duration in ticks and an outcome.
+ */
+public final class RecipeFlightEvents {
+
+	private static final String CATEGORY = "Gregic Additions";
+
+	/** A recipe logic looking for a recipe to start */
+	public static final Type SEARCH = new Type("RecipeSearch", "Recipe Search");
+	/** A recipe's inputs being checked and consumed */
+	public static final Type SETUP = new Type("RecipeSetup", "Recipe Setup");
+	/** A Processing Array scaling a recipe to its machines */
+	public static final Type MULTIPLY = new Type("RecipeMultiply", "Recipe Multiply");
+	/** A recipe completing, or jamming */
+	public static final Type COMPLETE = new Type("RecipeComplete", "Recipe Complete");
+	/** A multiblock checking that its structure can run a recipe */
+	public static final Type CHECK = new Type("RecipeCheck", "Recipe Check");
+
+	private RecipeFlightEvents() {}
+
+	/**
+	 * One kind of recipe event. Events are created per call, as JFR requires, but only while a recording wants them.
+	 */
+	public static final class Type {
+
+		private static final String[] FIELD_NAMES = {"recipeMap", "parallels", "duration", "outcome"};
+		private static final Class<?>[] FIELD_TYPES = {String.class, int.class, int.class, String.class};
+
+		private final MethodHandle isEnabled;
+		private final MethodHandle newEvent;
+		private final MethodHandle begin;
+		private final MethodHandle end;
+		private final MethodHandle shouldCommit;
+		private final MethodHandle commit;
+		private final MethodHandle set;
+		/** The {@code jdk.jfr.EventType} of the event, or {@code null} if JFR is unavailable */
+		private final Object eventType;
+
+		private Type(String name, String label) {
+			MethodHandle isEnabled = null, newEvent = null, begin = null, end = null, shouldCommit = null, commit = null, set = null;
+			Object eventType;
+
+			try {
+				Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement");
+				Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+				Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory");
+				Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType");
+				Class<?> eventClass = Class.forName("jdk.jfr.Event");
+				Constructor<?> annotationElement = annotationElementClass.getConstructor(Class.class, Object.class);
+
+				List<Object> annotations = Arrays.asList(
+					annotationElement.newInstance(Class.forName("jdk.jfr.Name"), "gregicadditions." + name),
+					annotationElement.newInstance(Class.forName("jdk.jfr.Label"), label),
+					annotationElement.newInstance(Class.forName("jdk.jfr.Category"), new String[] {CATEGORY}));
+
+				Constructor<?> valueDescriptor = valueDescriptorClass.getConstructor(Class.class, String.class);
+				List<Object> fields = new ArrayList<>();
+				for(int i = 0; i < FIELD_NAMES.length; i++)
+					fields.add(valueDescriptor.newInstance(FIELD_TYPES[i], FIELD_NAMES[i]));
+
+				Object factory = eventFactoryClass.getMethod("create", List.class, List.class).invoke(null, annotations, fields);
+				eventType = eventFactoryClass.getMethod("getEventType").invoke(factory);
+
+				MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+				isEnabled = lookup.unreflect(eventTypeClass.getMethod("isEnabled"));
+				newEvent = lookup.unreflect(eventFactoryClass.getMethod("newEvent")).bindTo(factory);
+				begin = lookup.unreflect(eventClass.getMethod("begin"));
+				end = lookup.unreflect(eventClass.getMethod("end"));
+				shouldCommit = lookup.unreflect(eventClass.getMethod("shouldCommit"));
+				commit = lookup.unreflect(eventClass.getMethod("commit"));
+				set = lookup.unreflect(eventClass.getMethod("set", int.class, Object.class));
+			} catch(ClassNotFoundException e) {
+				// Not a JFR-capable JVM; the events are simply never recorded
+				eventType = null;
+			} catch(ReflectiveOperationException | RuntimeException e) {
+				GregicAdditions.LOGGER.warn("Could not define JFR event {}, it will not be recorded", name, e);
+				eventType = null;
+			}
+
+			this.eventType = eventType;
+			this.isEnabled = isEnabled;
+			this.newEvent = newEvent;
+			this.begin = begin;
+			this.end = end;
+			this.shouldCommit = shouldCommit;
+			this.commit = commit;
+			this.set = set;
+		}
+
+		/**
+		 * Starts timing an event.
+		 *
+		 * @return the event to pass to {@link #commit}, or {@code null} if it is not being recorded
+		 */
+		public Object begin() {
+			if(eventType == null)
+				return null;
+
+			try {
+				if(!(boolean) isEnabled.invoke(eventType))
+					return null;
+
+				Object event = newEvent.invoke();
+				begin.invoke(event);
+				return event;
+			} catch(Throwable t) {
+				return null;
+			}
+		}
+
+		/**
+		 * Ends the event started by {@link #begin} and records it.
+		 *
+		 * @param event     the value {@link #begin} returned; nothing is done if it is {@code null}
+		 * @param recipeMap the unlocalized name of the recipe map, or {@code null} if there is none
+		 * @param parallels the number of parallel operations
+		 * @param duration  the recipe duration in ticks
+		 * @param outcome   what came of it
+		 */
+		public void commit(Object event, String recipeMap, int parallels, int duration, String outcome) {
+			if(event == null)
+				return;
+
+			try {
+				end.invoke(event);
+				if(!(boolean) shouldCommit.invoke(event))
+					return;
+
+				set.invoke(event, 0, recipeMap);
+				set.invoke(event, 1, parallels);
+				set.invoke(event, 2, duration);
+				set.invoke(event, 3, outcome);
+				commit.invoke(event);
+			} catch(Throwable t) {
+				// A failed event must never break the machine
+			}
+		}
+	}
+}
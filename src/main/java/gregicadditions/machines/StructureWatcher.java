@@ -0,0 +1,262 @@
+package gregicadditions.machines;
+
+import gregicadditions.GAConfig;
+import gregicadditions.Tags;
+import gregtech.api.multiblock.BlockWorldState;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.SoundCategory;
+import net.minecraft.util.SoundEvent;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.IWorldEventListener;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Lets a formed multiblock skip its periodic structure check until a block of the structure changes.
+ * <p>
+ * Predicates wrapped with {@link #watch} record the positions they are tested at during a full check. Once the
+ * structure has formed, those positions are registered by chunk with a listener on the world, which marks the watcher
+ * dirty when one of them changes or its chunk unloads. Only then does the next periodic check match the whole pattern
+ * again. Positions that accept any block aren't wrapped, so changes there are ignored.
+ * <p>
+ * Blocks set without notifying clients don't reach the listener, so a full check still runs after every
+ * {@link #MAX_SKIPPED_CHECKS} skipped ones.
+ */
+@Mod.EventBusSubscriber(modid = Tags.MODID)
+public class StructureWatcher {
+
+	/** Periodic checks skipped in a row before the next one is a full check regardless */
+	private static final int MAX_SKIPPED_CHECKS = 15;
+
+	/** The watcher of the full check currently running, or {@code null} */
+	private static StructureWatcher recording = null;
+
+	/** The listener of each loaded server world */
+	private static final WeakHashMap<World, Listener> LISTENERS = new WeakHashMap<>();
+
+	/** Positions of the structure as of the last full check */
+	private final LongOpenHashSet positions = new LongOpenHashSet();
+
+	/** Where {@link #positions} are registered, or {@code null} if they aren't */
+	@Nullable
+	private Listener listener = null;
+
+	/** The controller's facing when the structure formed */
+	@Nullable
+	private EnumFacing formedFacing = null;
+
+	private boolean dirty = true;
+
+	/** Periodic checks skipped since the last full check */
+	private int skippedChecks = 0;
+
+	/**
+	 * @param predicate a predicate of a structure pattern
+	 * @return the predicate, recording where it is tested during a full check
+	 */
+	public static Predicate<BlockWorldState> watch(Predicate<BlockWorldState> predicate) {
+		return state -> {
+			StructureWatcher watcher = recording;
+			if(watcher != null)
+				watcher.positions.add(state.getPos().toLong());
+			return predicate.test(state);
+		};
+	}
+
+	/**
+	 * Call once per periodic check.
+	 *
+	 * @param formed whether the structure is currently formed
+	 * @param facing the controller's current facing
+	 * @return {@code true} if nothing the structure depends on has changed since it formed, and the last
+	 *         {@link #MAX_SKIPPED_CHECKS} checks haven't all been skipped
+	 */
+	public boolean canSkipCheck(boolean formed, EnumFacing facing) {
+		if(!formed || dirty || listener == null || facing != formedFacing || !GAConfig.multiblocks.incrementalStructureChecks)
+			return false;
+		if(skippedChecks >= MAX_SKIPPED_CHECKS)
+			return false;
+		skippedChecks++;
+		return true;
+	}
+
+	/**
+	 * Call right before a full check, on the server.
+	 */
+	public void beginCheck() {
+		unregister();
+		positions.clear();
+		skippedChecks = 0;
+		recording = this;
+	}
+
+	/**
+	 * Call right after a full check.
+	 *
+	 * @param world  the controller's world
+	 * @param formed whether the structure is formed after the check
+	 * @param facing the controller's facing
+	 */
+	public void endCheck(World world, boolean formed, EnumFacing facing) {
+		recording = null;
+		if(!formed) {
+			positions.clear();
+			return;
+		}
+
+		Listener listener = LISTENERS.get(world);
+		if(listener == null)
+			return;
+
+		listener.register(this);
+		this.listener = listener;
+		this.formedFacing = facing;
+		this.dirty = false;
+	}
+
+	/**
+	 * Stops watching, e.g. when the controller is removed. The next check is a full one.
+	 */
+	public void unregister() {
+		if(listener != null) {
+			listener.unregister(this);
+			listener = null;
+		}
+		dirty = true;
+	}
+
+	@SubscribeEvent
+	public static void onWorldLoad(WorldEvent.Load event) {
+		World world = event.getWorld();
+		if(world.isRemote)
+			return;
+
+		Listener listener = new Listener();
+		LISTENERS.put(world, listener);
+		world.addEventListener(listener);
+	}
+
+	@SubscribeEvent
+	public static void onWorldUnload(WorldEvent.Unload event) {
+		Listener listener = LISTENERS.remove(event.getWorld());
+		if(listener != null)
+			event.getWorld().removeEventListener(listener);
+	}
+
+	@SubscribeEvent
+	public static void onChunkUnload(ChunkEvent.Unload event) {
+		Listener listener = LISTENERS.get(event.getWorld());
+		if(listener != null)
+			listener.onChunkUnload(event.getChunk().getPos());
+	}
+
+	/**
+	 * Watches the block changes of one world, for the watchers with positions in each chunk.
+	 */
+	private static class Listener implements IWorldEventListener {
+
+		private final Long2ObjectOpenHashMap<Set<StructureWatcher>> watchersByChunk = new Long2ObjectOpenHashMap<>();
+
+		private static long chunkKey(long pos) {
+			BlockPos blockPos = BlockPos.fromLong(pos);
+			return ChunkPos.asLong(blockPos.getX() >> 4, blockPos.getZ() >> 4);
+		}
+
+		void register(StructureWatcher watcher) {
+			LongIterator iterator = watcher.positions.iterator();
+			while(iterator.hasNext()) {
+				long chunk = chunkKey(iterator.nextLong());
+				Set<StructureWatcher> watchers = watchersByChunk.get(chunk);
+				if(watchers == null)
+					watchersByChunk.put(chunk, watchers = new ReferenceOpenHashSet<>());
+				watchers.add(watcher);
+			}
+		}
+
+		void unregister(StructureWatcher watcher) {
+			LongIterator iterator = watcher.positions.iterator();
+			while(iterator.hasNext()) {
+				long chunk = chunkKey(iterator.nextLong());
+				Set<StructureWatcher> watchers = watchersByChunk.get(chunk);
+				if(watchers != null && watchers.remove(watcher) && watchers.isEmpty())
+					watchersByChunk.remove(chunk);
+			}
+		}
+
+		/**
+		 * A structure partly in an unloaded chunk has to be checked again once it is back; its controller may be
+		 * unloading too, so stop watching it entirely.
+		 */
+		void onChunkUnload(ChunkPos chunkPos) {
+			Set<StructureWatcher> watchers = watchersByChunk.get(ChunkPos.asLong(chunkPos.x, chunkPos.z));
+			if(watchers != null)
+				for(StructureWatcher watcher : new ArrayList<>(watchers))
+					watcher.unregister();
+		}
+
+		@Override
+		public void notifyBlockUpdate(World world, BlockPos pos, IBlockState oldState, IBlockState newState, int flags) {
+			long key = pos.toLong();
+			Set<StructureWatcher> watchers = watchersByChunk.get(chunkKey(key));
+			if(watchers == null)
+				return;
+
+			for(StructureWatcher watcher : watchers)
+				if(watcher.positions.contains(key))
+					watcher.dirty = true;
+		}
+
+		@Override
+		public void notifyLightSet(BlockPos pos) {}
+
+		@Override
+		public void markBlockRangeForRenderUpdate(int x1, int y1, int z1, int x2, int y2, int z2) {}
+
+		@Override
+		public void playSoundToAllNearExcept(@Nullable EntityPlayer player, SoundEvent sound, SoundCategory category,
+		                                     double x, double y, double z, float volume, float pitch) {}
+
+		@Override
+		public void playRecord(SoundEvent sound, BlockPos pos) {}
+
+		@Override
+		public void spawnParticle(int particleID, boolean ignoreRange, double x, double y, double z,
+		                          double xSpeed, double ySpeed, double zSpeed, int... parameters) {}
+
+		@Override
+		public void spawnParticle(int id, boolean ignoreRange, boolean minimiseParticleLevel, double x, double y, double z,
+		                          double xSpeed, double ySpeed, double zSpeed, int... parameters) {}
+
+		@Override
+		public void onEntityAdded(Entity entity) {}
+
+		@Override
+		public void onEntityRemoved(Entity entity) {}
+
+		@Override
+		public void broadcastSound(int soundID, BlockPos pos, int data) {}
+
+		@Override
+		public void playEvent(EntityPlayer player, int type, BlockPos pos, int data) {}
+
+		@Override
+		public void sendBlockBreakProgress(int breakerId, BlockPos pos, int progress) {}
+	}
+}
@@ -1,20 +1,33 @@
 package gregicadditions.machines;
 
+import static gregtech.api.gui.widgets.AdvancedTextWidget.*;
+import static gregicadditions.machines.StructureWatcher.watch;
 import static gregtech.api.multiblock.BlockPattern.RelativeDirection.*;
 
+import gregicadditions.GAConfig;
 import gregicadditions.item.GAMetaBlocks;
 import gregicadditions.item.GAMultiblockCasing;
 import gregicadditions.item.GATransparentCasing;
+import gregicadditions.recipes.AssemblyLineRecipeIndex;
 import gregicadditions.recipes.GARecipeMaps;
+import gregicadditions.recipes.RecipeMultiplication;
+import gregtech.api.capability.IEnergyContainer;
+import gregtech.api.capability.IMultipleTankHandler;
+import gregtech.api.capability.impl.ItemHandlerList;
+import gregtech.api.capability.impl.MultiblockRecipeLogic;
+import gregtech.api.gui.Widget;
 import gregtech.api.metatileentity.MetaTileEntity;
 import gregtech.api.metatileentity.MetaTileEntityHolder;
+import gregtech.api.metatileentity.multiblock.IMultiblockAbilityPart;
 import gregtech.api.metatileentity.multiblock.IMultiblockPart;
 import gregtech.api.metatileentity.multiblock.MultiblockAbility;
 import gregtech.api.metatileentity.multiblock.RecipeMapMultiblockController;
 import gregtech.api.multiblock.BlockPattern;
 import gregtech.api.multiblock.FactoryBlockPattern;
 import gregtech.api.multiblock.PatternMatchContext;
+import gregtech.api.recipes.CountableIngredient;
 import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeBuilder;
 import gregtech.api.render.ICubeRenderer;
 import gregtech.api.render.Textures;
 import gregtech.common.blocks.BlockMetalCasing;
@@ -22,11 +35,23 @@ import gregtech.common.blocks.BlockMultiblockCasing;
 import gregtech.common.blocks.MetaBlocks;
 import gregtech.common.metatileentities.MetaTileEntities;
 import net.minecraft.block.state.IBlockState;
+import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.NonNullList;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.text.ITextComponent;
 import net.minecraft.util.text.TextComponentTranslation;
+import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.IFluidTank;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.IItemHandlerModifiable;
 
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 public class TileEntityAssemblyLine extends RecipeMapMultiblockController {
@@ -37,8 +62,21 @@ public class TileEntityAssemblyLine extends RecipeMapMultiblockController {
 	/** Number of slices required to run the active recipe */
 	private int recipeSlices = 0;
 
+	/** Whether a recipe enters the line as soon as the one before it has moved past the first slice */
+	private boolean isPipelined = false;
+
+	/** Search times, idle reasons and parallels */
+	private final MultiblockStats stats = new MultiblockStats();
+
+	/** Skips the periodic structure check while the line is unchanged */
+	private final StructureWatcher structureWatcher = new StructureWatcher();
+
+	private final AssemblyLineRecipeLogic assemblyLineLogic;
+
 	public TileEntityAssemblyLine(ResourceLocation metaTileEntityId) {
 		super(metaTileEntityId, GARecipeMaps.ASSEMBLY_LINE_RECIPES);
+		this.assemblyLineLogic = new AssemblyLineRecipeLogic(this);
+		this.recipeMapWorkable = assemblyLineLogic;
 	}
 
 	@Override
@@ -52,17 +90,17 @@ public class TileEntityAssemblyLine extends RecipeMapMultiblockController {
 					.aisle("#Y#", "GSG", "RTR", "FIF")
 					.aisle("#Y#", "GAG", "RTR", "FIF").setRepeatable(3, 15)
 					.aisle("#Y#", "GAG", "RTR", "COC")
-					.where('S', selfPredicate())
-					.where('C', statePredicate(getCasingState()))
-					.where('F', statePredicate(getCasingState()).or(abilityPartPredicate(MultiblockAbility.IMPORT_FLUIDS)))
-					.where('O', statePredicate(getCasingState()).or(abilityPartPredicate(MultiblockAbility.EXPORT_ITEMS)))
-					.where('Y', statePredicate(getCasingState()).or(abilityPartPredicate(MultiblockAbility.INPUT_ENERGY)))
-					.where('I', tilePredicate((state, tile) -> {
-						return tile.metaTileEntityId.equals(MetaTileEntities.ITEM_IMPORT_BUS[0].metaTileEntityId); }))
-					.where('G', statePredicate(MetaBlocks.MUTLIBLOCK_CASING.getState(BlockMultiblockCasing.MultiblockCasingType.GRATE_CASING)))
-					.where('A', statePredicate(MetaBlocks.MUTLIBLOCK_CASING.getState(BlockMultiblockCasing.MultiblockCasingType.ASSEMBLER_CASING)))
-					.where('R', statePredicate(GAMetaBlocks.TRANSPARENT_CASING.getState(GATransparentCasing.CasingType.REINFORCED_GLASS)))
-					.where('T', statePredicate(GAMetaBlocks.MUTLIBLOCK_CASING.getState(GAMultiblockCasing.CasingType.TUNGSTENSTEEL_GEARBOX_CASING)))
+					.where('S', watch(selfPredicate()))
+					.where('C', watch(statePredicate(getCasingState())))
+					.where('F', watch(statePredicate(getCasingState()).or(abilityPartPredicate(MultiblockAbility.IMPORT_FLUIDS))))
+					.where('O', watch(statePredicate(getCasingState()).or(abilityPartPredicate(MultiblockAbility.EXPORT_ITEMS))))
+					.where('Y', watch(statePredicate(getCasingState()).or(abilityPartPredicate(MultiblockAbility.INPUT_ENERGY))))
+					.where('I', watch(tilePredicate((state, tile) -> {
+						return tile.metaTileEntityId.equals(MetaTileEntities.ITEM_IMPORT_BUS[0].metaTileEntityId); })))
+					.where('G', watch(statePredicate(MetaBlocks.MUTLIBLOCK_CASING.getState(BlockMultiblockCasing.MultiblockCasingType.GRATE_CASING))))
+					.where('A', watch(statePredicate(MetaBlocks.MUTLIBLOCK_CASING.getState(BlockMultiblockCasing.MultiblockCasingType.ASSEMBLER_CASING))))
+					.where('R', watch(statePredicate(GAMetaBlocks.TRANSPARENT_CASING.getState(GATransparentCasing.CasingType.REINFORCED_GLASS))))
+					.where('T', watch(statePredicate(GAMetaBlocks.MUTLIBLOCK_CASING.getState(GAMultiblockCasing.CasingType.TUNGSTENSTEEL_GEARBOX_CASING))))
 					.where('#', (tile) -> {
 						return true; })
 					.build();
@@ -85,34 +123,498 @@ public class TileEntityAssemblyLine extends RecipeMapMultiblockController {
 			textList.add(new TextComponentTranslation("gtadditions.machine.assembly_line.slices", inputSlices + 1));
 			if(getRecipeMapWorkable().isJammed() && inputSlices < recipeSlices)
 				textList.add(new TextComponentTranslation("gtadditions.machine.assembly_line.recipe_slices", recipeSlices + 1));
+
+			ITextComponent pipelineButton = withButton(new TextComponentTranslation("gtadditions.machine.assembly_line.pipelined." + (isPipelined ? "yes" : "no")), "pipeline");
+			withHoverTextTranslate(pipelineButton, "gtadditions.machine.assembly_line.pipelined.info");
+			textList.add(new TextComponentTranslation("gtadditions.machine.assembly_line.pipelined").appendText(" ").appendSibling(pipelineButton));
+			if(assemblyLineLogic.activeParallels > 1)
+				textList.add(new TextComponentTranslation("gtadditions.machine.assembly_line.parallels", assemblyLineLogic.activeParallels));
+			if(assemblyLineLogic.getRecipesInFlight() > 0)
+				textList.add(new TextComponentTranslation("gtadditions.machine.assembly_line.in_flight", assemblyLineLogic.getRecipesInFlight()));
+
+			stats.addDisplayText(textList);
+		}
+	}
+
+	@Override
+	protected void handleDisplayClick(String componentData, Widget.ClickData clickData) {
+		super.handleDisplayClick(componentData, clickData);
+		if(componentData.equals("pipeline"))
+			isPipelined = !isPipelined;
+		else if(componentData.equals(MultiblockStats.TOGGLE_CLICK_DATA))
+			stats.toggleExpanded();
+	}
+
+	@Override
+	public void update() {
+		long profileStart = MachineProfiler.begin(this);
+		super.update();
+		MachineProfiler.end(this, profileStart);
+	}
+
+	@Override
+	protected void updateFormedValid() {
+		stats.update();
+		super.updateFormedValid();
+	}
+
+	@Override
+	protected void checkStructurePattern() {
+		if(structureWatcher.canSkipCheck(isStructureFormed(), getFrontFacing()))
+			return;
+
+		structureWatcher.beginCheck();
+		try {
+			super.checkStructurePattern();
+		} finally {
+			structureWatcher.endCheck(getWorld(), isStructureFormed(), getFrontFacing());
 		}
 	}
 
+	@Override
+	public void onRemoval() {
+		super.onRemoval();
+		structureWatcher.unregister();
+	}
+
 	@Override
 	protected void formStructure(PatternMatchContext context) {
 		super.formStructure(context);
+		// Recipes are looked up slice by slice, so the buses must be in slice order rather than the structure's
+		this.inputInventory = new ItemHandlerList(getInputBusesInSliceOrder());
 		inputSlices = getInputInventory().getSlots();
+		stats.reset();
+	}
+
+	/**
+	 * @return the handlers of the input buses, starting with the one next to the controller
+	 */
+	@SuppressWarnings("unchecked")
+	protected List<IItemHandlerModifiable> getInputBusesInSliceOrder() {
+		List<IMultiblockPart> buses = new ArrayList<>();
+		for(IMultiblockPart part : getMultiblockParts())
+			if(part instanceof IMultiblockAbilityPart<?> abilityPart && abilityPart.getAbility() == MultiblockAbility.IMPORT_ITEMS)
+				buses.add(part);
+		buses.sort(Comparator.comparingDouble(part -> ((MetaTileEntity) part).getPos().distanceSq(getPos())));
+
+		List<IItemHandlerModifiable> handlers = new ArrayList<>();
+		for(IMultiblockPart bus : buses)
+			((IMultiblockAbilityPart<IItemHandlerModifiable>) bus).registerAbilities(handlers);
+		return handlers;
 	}
 
 	@Override
 	public boolean checkRecipe(Recipe recipe, boolean consumeIfSuccess) {
+		Object event = RecipeFlightEvents.CHECK.begin();
 		if(recipe != null)
 			recipeSlices = recipe.getInputs().size();
 
-		return inputSlices >= recipeSlices
+		boolean canRun = inputSlices >= recipeSlices
 			   && super.checkRecipe(recipe, consumeIfSuccess);
+		RecipeFlightEvents.CHECK.commit(event, recipeMap.unlocalizedName, 1, recipe == null ? 0 : recipe.getDuration(),
+		                                canRun ? "ok" : "too_few_slices");
+		return canRun;
 	}
 
 	@Override
 	public NBTTagCompound writeToNBT(NBTTagCompound data) {
 		if(getRecipeMapWorkable().isActive())
 			data.setInteger("Slices", recipeSlices);
+		data.setBoolean("Pipelined", isPipelined);
+		stats.writeToNBT(data);
 		return super.writeToNBT(data);
 	}
 
 	@Override
 	public void readFromNBT(NBTTagCompound data) {
 		recipeSlices = data.getInteger("Slices");
+		isPipelined = data.getBoolean("Pipelined");
+		stats.readFromNBT(data);
 		super.readFromNBT(data);
 	}
+
+	/**
+	 * @param recipe      a recipe whose first copy was found in the first slices of {@code inputs}
+	 * @param inputs      the slices, in order
+	 * @param fluidInputs the fluid hatches
+	 * @param maxEUt      the EU/t the energy hatches can supply
+	 * @return the number of copies of {@code recipe} to run. Copy {@code n} takes its items from the {@code n}th
+	 *         group of as many slices as the recipe has inputs, each slice holding the input at the same position.
+	 *         The copies share the fluids and energy hatches, and draw EU/t between them.
+	 */
+	static int getParallels(Recipe recipe, IItemHandler inputs, IMultipleTankHandler fluidInputs, long maxEUt) {
+		int recipeSlices = recipe.getInputs().size();
+		if(recipeSlices == 0)
+			return 1;
+		int maxParallels = inputs.getSlots() / recipeSlices;
+
+		// The multiplied recipe's EU/t has to fit in an int too
+		if(recipe.getEUt() > 0)
+			maxParallels = (int) Math.min(maxParallels, Math.min(maxEUt, Integer.MAX_VALUE) / recipe.getEUt());
+
+		for(FluidStack fluid : recipe.getFluidInputs()) {
+			long available = 0;
+			for(IFluidTank tank : fluidInputs)
+				if(fluid.isFluidEqual(tank.getFluid()))
+					available += tank.getFluidAmount();
+			maxParallels = (int) Math.min(maxParallels, available / fluid.amount);
+		}
+
+		// The first copy was already found; count the groups after it that hold a full set
+		int parallels = 1;
+		List<ItemStack> group = new ArrayList<>(recipeSlices);
+		while(parallels < maxParallels) {
+			group.clear();
+			for(int i = 0; i < recipeSlices; i++)
+				group.add(inputs.getStackInSlot(parallels * recipeSlices + i));
+			if(!AssemblyLineRecipeIndex.matchesInOrder(recipe, group))
+				break;
+			parallels++;
+		}
+		return parallels;
+	}
+
+	private class AssemblyLineRecipeLogic extends MultiblockRecipeLogic {
+
+		/**
+		 * Recipes on the line while pipelined, the one closest to completion first. The inherited progress fields
+		 * mirror the first of them, which is what the progress bar and NBT show.
+		 */
+		private final ArrayDeque<PipelineEntry> pipeline = new ArrayDeque<>();
+
+		/** The last recipe {@link #findRecipe} multiplied, the recipe it multiplied, and the number of copies it runs */
+		private Recipe multipliedRecipe = null;
+		private Recipe multipliedBaseRecipe = null;
+		private int multipliedParallels = 1;
+
+		/** Copies of the recipe in progress */
+		private int activeParallels = 0;
+
+		public AssemblyLineRecipeLogic(TileEntityAssemblyLine tileEntity) {
+			super(tileEntity);
+		}
+
+		public int getRecipesInFlight() {
+			return pipeline.size();
+		}
+
+		@Override
+		public void updateWorkable() {
+			// A recipe started before the line was pipelined runs to completion first, and the pipeline drains
+			// after it is turned off
+			if(!pipeline.isEmpty() || (isPipelined && progressTime == 0))
+				updatePipeline();
+			else
+				super.updateWorkable();
+
+			if(isWorkingEnabled())
+				// A jam here means the line has too few slices for the recipe
+				stats.recordTick(MultiblockStats.classify(progressTime > 0, isJammed, hasNotEnoughEnergy, isOutputsFull));
+		}
+
+		@Override
+		protected void trySearchNewRecipe() {
+			long searchStart = stats.startSearch();
+			super.trySearchNewRecipe();
+			stats.endSearch(searchStart);
+		}
+
+		/**
+		 * Finds a recipe, then runs as many copies of it as the surplus slices hold.
+		 */
+		@Override
+		protected Recipe findRecipe(long maxVoltage, IItemHandlerModifiable inputs, IMultipleTankHandler fluidInputs) {
+			Recipe recipe = super.findRecipe(maxVoltage, inputs, fluidInputs);
+			if(recipe == null || !GAConfig.multiblocks.assemblyLineParallel)
+				return recipe;
+
+			int parallels = getParallels(recipe, inputs, fluidInputs, getMaxEUt());
+			if(parallels <= 1)
+				return recipe;
+
+			Recipe multiplied = multiplyRecipe(recipe, parallels);
+			// Copies past the first are only checked slice by slice, so make sure the totals are there too
+			if(multiplied == null || !multiplied.matches(false, inputs, fluidInputs))
+				return recipe;
+
+			multipliedRecipe = multiplied;
+			multipliedBaseRecipe = recipe;
+			multipliedParallels = parallels;
+			return multiplied;
+		}
+
+		/**
+		 * @return the EU/t the energy hatches can supply
+		 */
+		private long getMaxEUt() {
+			IEnergyContainer energyContainer = getEnergyContainer();
+			return energyContainer.getInputVoltage() * energyContainer.getInputAmperage();
+		}
+
+		/**
+		 * @return {@code recipe} with its inputs, outputs and EU/t multiplied by {@code parallels}
+		 */
+		@Nullable
+		private Recipe multiplyRecipe(Recipe recipe, int parallels) {
+			List<CountableIngredient> inputs = new ArrayList<>();
+			List<FluidStack> fluidInputs = new ArrayList<>();
+			List<ItemStack> outputs = new ArrayList<>();
+			List<FluidStack> fluidOutputs = new ArrayList<>();
+			RecipeMultiplication.multiplyInputsAndOutputs(inputs, fluidInputs, outputs, fluidOutputs, recipe, parallels);
+
+			RecipeBuilder<?> builder = recipeMap.recipeBuilder()
+			                                    .inputsIngredients(inputs)
+			                                    .fluidInputs(fluidInputs)
+			                                    .outputs(outputs)
+			                                    .fluidOutputs(fluidOutputs)
+			                                    .EUt(recipe.getEUt() * parallels)
+			                                    .duration(recipe.getDuration());
+			RecipeMultiplication.copyChancedItemOutputs(builder, recipe, parallels);
+			return builder.build().getResult();
+		}
+
+		@Override
+		protected void setupRecipe(Recipe recipe) {
+			super.setupRecipe(recipe);
+			boolean multiplied = recipe == multipliedRecipe;
+			activeParallels = multiplied ? multipliedParallels : 1;
+			stats.recordRecipeStarted(activeParallels);
+			if(isPipelined) {
+				// Each slice gets an equal share of the recipe's duration
+				int stageTime = (maxProgressTime + recipe.getInputs().size() - 1) / Math.max(1, recipe.getInputs().size());
+				pipeline.addLast(new PipelineEntry(recipe, multiplied ? multipliedBaseRecipe : recipe, activeParallels, itemOutputs,
+				                                   fluidOutputs, recipeEUt, maxProgressTime, Math.max(1, stageTime)));
+			}
+		}
+
+		private void updatePipeline() {
+			if(!isWorkingEnabled())
+				return;
+
+			advancePipeline();
+			if(isPipelined && canEnterPipeline())
+				enterPipeline();
+			syncWithHead();
+		}
+
+		/**
+		 * Moves every recipe on the line along by a tick if there is the energy for all that can move, then outputs
+		 * the first one if it has reached the end.
+		 */
+		private void advancePipeline() {
+			long totalEUt = 0;
+			// A recipe can't catch up to within a slice of the one ahead of it
+			int aheadProgress = Integer.MAX_VALUE;
+			for(PipelineEntry entry : pipeline) {
+				int limit = aheadProgress == Integer.MAX_VALUE ? entry.duration : Math.min(entry.duration, aheadProgress - entry.stageTime);
+				entry.moving = entry.progress < limit;
+				if(entry.moving)
+					totalEUt += entry.EUt;
+				aheadProgress = entry.moving ? entry.progress + 1 : entry.progress;
+			}
+
+			if(totalEUt > 0 && !drawEnergy((int) Math.min(Integer.MAX_VALUE, totalEUt)))
+				hasNotEnoughEnergy = true;
+			else {
+				hasNotEnoughEnergy = false;
+				for(PipelineEntry entry : pipeline)
+					if(entry.moving)
+						entry.progress++;
+			}
+
+			PipelineEntry head = pipeline.peekFirst();
+			if(head == null || head.progress < head.duration)
+				return;
+
+			// Wait for room rather than voiding, holding up the recipes behind
+			if(MetaTileEntity.addItemsToItemHandler(getOutputInventory(), true, head.itemOutputs) &&
+			   MetaTileEntity.addFluidsToFluidHandler(getOutputTank(), true, head.fluidOutputs)) {
+				MetaTileEntity.addItemsToItemHandler(getOutputInventory(), false, head.itemOutputs);
+				MetaTileEntity.addFluidsToFluidHandler(getOutputTank(), false, head.fluidOutputs);
+				pipeline.removeFirst();
+				isOutputsFull = false;
+			} else
+				isOutputsFull = true;
+		}
+
+		/**
+		 * @return {@code true} if the first slice is free and the energy hatches can run another copy of the last
+		 *         recipe alongside those on the line. Recipes loaded from NBT can't be followed, as the recipe itself
+		 *         isn't saved, so the line drains before taking new ones.
+		 */
+		private boolean canEnterPipeline() {
+			PipelineEntry last = pipeline.peekLast();
+			if(last == null)
+				return true;
+			if(last.recipe == null || last.progress < last.stageTime)
+				return false;
+
+			long inFlightEUt = 0;
+			for(PipelineEntry entry : pipeline)
+				inFlightEUt += entry.EUt;
+			return inFlightEUt + last.EUt <= getMaxEUt();
+		}
+
+		private void enterPipeline() {
+			if(pipeline.isEmpty()) {
+				if(shouldSearchForRecipes())
+					trySearchNewRecipe();
+				return;
+			}
+
+			// The slices are set up for the recipe already on the line, so only it can follow, and only with each
+			// input in its own slice as a search would have found it
+			PipelineEntry last = pipeline.peekLast();
+			IItemHandlerModifiable inputs = getInputInventory();
+			int recipeSlices = last.baseRecipe.getInputs().size();
+			List<ItemStack> group = new ArrayList<>(recipeSlices);
+			for(int i = 0; i < Math.min(recipeSlices, inputs.getSlots()); i++)
+				group.add(inputs.getStackInSlot(i));
+			if(!AssemblyLineRecipeIndex.matchesInOrder(last.baseRecipe, group))
+				return;
+			if(last.parallels > 1 && getParallels(last.baseRecipe, inputs, getInputTank(), getMaxEUt()) < last.parallels)
+				return;
+
+			Recipe recipe = last.recipe;
+			if(recipe.matches(false, inputs, getInputTank()) && setupAndConsumeRecipeInputs(recipe)) {
+				multipliedRecipe = recipe;
+				multipliedBaseRecipe = last.baseRecipe;
+				multipliedParallels = last.parallels;
+				setupRecipe(recipe);
+			}
+		}
+
+		private void syncWithHead() {
+			PipelineEntry head = pipeline.peekFirst();
+			if(head == null) {
+				activeParallels = 0;
+				progressTime = 0;
+				maxProgressTime = 0;
+				recipeEUt = 0;
+				itemOutputs = null;
+				fluidOutputs = null;
+				if(isActive)
+					setActive(false);
+				return;
+			}
+
+			progressTime = Math.max(1, head.progress);
+			maxProgressTime = head.duration;
+			recipeEUt = head.EUt;
+			itemOutputs = head.itemOutputs;
+			fluidOutputs = head.fluidOutputs;
+			if(!isActive)
+				setActive(true);
+		}
+
+		@Override
+		protected void completeRecipe() {
+			super.completeRecipe();
+			activeParallels = 0;
+		}
+
+		/**
+		 * Recipes on the line have consumed their inputs already, so they stay on it while the structure is broken,
+		 * as they do across a save, and carry on once it forms again.
+		 */
+		@Override
+		public void invalidate() {
+			multipliedRecipe = null;
+			multipliedBaseRecipe = null;
+			if(pipeline.isEmpty())
+				activeParallels = 0;
+			super.invalidate();
+		}
+
+		@Override
+		public NBTTagCompound serializeNBT() {
+			NBTTagCompound tag = super.serializeNBT();
+			tag.setInteger("Parallels", activeParallels);
+			if(!pipeline.isEmpty()) {
+				NBTTagList entries = new NBTTagList();
+				for(PipelineEntry entry : pipeline)
+					entries.appendTag(entry.writeToNBT());
+				tag.setTag("Pipeline", entries);
+			}
+			return tag;
+		}
+
+		@Override
+		public void deserializeNBT(NBTTagCompound compound) {
+			super.deserializeNBT(compound);
+			activeParallels = compound.getInteger("Parallels");
+			pipeline.clear();
+			NBTTagList entries = compound.getTagList("Pipeline", Constants.NBT.TAG_COMPOUND);
+			for(int i = 0; i < entries.tagCount(); i++)
+				pipeline.addLast(PipelineEntry.readFromNBT(entries.getCompoundTagAt(i)));
+		}
+	}
+
+	/**
+	 * A recipe on its way down a pipelined line.
+	 */
+	private static class PipelineEntry {
+		/** The recipe, or {@code null} if the entry was loaded from NBT */
+		@Nullable
+		final Recipe recipe;
+		/** The recipe before it was multiplied, or {@code null} if the entry was loaded from NBT */
+		@Nullable
+		final Recipe baseRecipe;
+		/** Copies of {@link #baseRecipe} that {@link #recipe} runs */
+		final int parallels;
+		final NonNullList<ItemStack> itemOutputs;
+		final List<FluidStack> fluidOutputs;
+		final int EUt;
+		final int duration;
+		/** Ticks the recipe spends in each slice */
+		final int stageTime;
+		int progress = 0;
+		/** Whether the recipe moves this tick */
+		boolean moving = false;
+
+		PipelineEntry(@Nullable Recipe recipe, @Nullable Recipe baseRecipe, int parallels, NonNullList<ItemStack> itemOutputs,
+		              List<FluidStack> fluidOutputs, int EUt, int duration, int stageTime) {
+			this.recipe = recipe;
+			this.baseRecipe = baseRecipe;
+			this.parallels = parallels;
+			this.itemOutputs = itemOutputs;
+			this.fluidOutputs = fluidOutputs;
+			this.EUt = EUt;
+			this.duration = duration;
+			this.stageTime = stageTime;
+		}
+
+		NBTTagCompound writeToNBT() {
+			NBTTagCompound tag = new NBTTagCompound();
+			NBTTagList items = new NBTTagList();
+			for(ItemStack stack : itemOutputs)
+				items.appendTag(stack.writeToNBT(new NBTTagCompound()));
+			tag.setTag("ItemOutputs", items);
+			NBTTagList fluids = new NBTTagList();
+			for(FluidStack stack : fluidOutputs)
+				fluids.appendTag(stack.writeToNBT(new NBTTagCompound()));
+			tag.setTag("FluidOutputs", fluids);
+			tag.setInteger("EUt", EUt);
+			tag.setInteger("Duration", duration);
+			tag.setInteger("StageTime", stageTime);
+			tag.setInteger("Progress", progress);
+			return tag;
+		}
+
+		static PipelineEntry readFromNBT(NBTTagCompound tag) {
+			NonNullList<ItemStack> itemOutputs = NonNullList.create();
+			NBTTagList items = tag.getTagList("ItemOutputs", Constants.NBT.TAG_COMPOUND);
+			for(int i = 0; i < items.tagCount(); i++)
+				itemOutputs.add(new ItemStack(items.getCompoundTagAt(i)));
+			List<FluidStack> fluidOutputs = new ArrayList<>();
+			NBTTagList fluids = tag.getTagList("FluidOutputs", Constants.NBT.TAG_COMPOUND);
+			for(int i = 0; i < fluids.tagCount(); i++)
+				fluidOutputs.add(FluidStack.loadFluidStackFromNBT(fluids.getCompoundTagAt(i)));
+
+			PipelineEntry entry = new PipelineEntry(null, null, 1, itemOutputs, fluidOutputs,
+			                                        tag.getInteger("EUt"), tag.getInteger("Duration"), tag.getInteger("StageTime"));
+			entry.progress = tag.getInteger("Progress");
+			return entry;
+		}
+	}
 }
@@ -57,6 +57,13 @@ public class TileEntityCrate extends MetaTileEntity implements IMaterial {
 		return false;
 	}
 
+	@Override
+	public void update() {
+		long profileStart = MachineProfiler.begin(this);
+		super.update();
+		MachineProfiler.end(this, profileStart);
+	}
+
 	@Override
 	public int getLightOpacity() {
 		return 1;
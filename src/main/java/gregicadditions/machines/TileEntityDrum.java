@@ -63,6 +63,13 @@ public class TileEntityDrum extends MetaTileEntity implements IMaterial {
 		return new TileEntityDrum(metaTileEntityId, material, tankSize);
 	}
 
+	@Override
+	public void update() {
+		long profileStart = MachineProfiler.begin(this);
+		super.update();
+		MachineProfiler.end(this, profileStart);
+	}
+
 	@Override
 	public int getLightOpacity() {
 		return 1;
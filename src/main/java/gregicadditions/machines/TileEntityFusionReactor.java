@@ -3,6 +3,7 @@ package gregicadditions.machines;
 import static gregtech.api.multiblock.BlockPattern.RelativeDirection.BACK;
 import static gregtech.api.multiblock.BlockPattern.RelativeDirection.DOWN;
 import static gregtech.api.multiblock.BlockPattern.RelativeDirection.LEFT;
+import static gregicadditions.machines.StructureWatcher.watch;
 
 import java.util.List;
 
@@ -18,6 +19,7 @@ import gregtech.api.capability.impl.EnergyContainerList;
 import gregtech.api.capability.impl.FluidTankList;
 import gregtech.api.capability.impl.ItemHandlerList;
 import gregtech.api.capability.impl.MultiblockRecipeLogic;
+import gregtech.api.gui.Widget;
 import gregtech.api.metatileentity.MetaTileEntity;
 import gregtech.api.metatileentity.MetaTileEntityHolder;
 import gregtech.api.metatileentity.multiblock.IMultiblockPart;
@@ -46,10 +48,19 @@ import net.minecraft.util.text.TextFormatting;
 import net.minecraftforge.items.IItemHandlerModifiable;
 
 public class TileEntityFusionReactor extends RecipeMapMultiblockController {
+	/** Heat lost each tick the reactor isn't running a recipe */
+	protected static final long HEAT_DECAY_PER_TICK = 10_000;
+
 	private final int tier;
 	private EnergyContainerList inputEnergyContainers;
 	private long heat = 0; // defined in TileEntityFusionReactor but serialized in FusionRecipeLogic
+	/** World time {@link #heat} was last brought up to date at while decaying, or -1 while it isn't decaying */
+	private long heatTime = -1;
 	private long recipeHeat = 0;
+	/** Search times, idle reasons and parallels */
+	private final MultiblockStats stats = new MultiblockStats();
+	/** Skips the periodic structure check while the ring is unchanged */
+	private final StructureWatcher structureWatcher = new StructureWatcher();
 
 	public TileEntityFusionReactor(ResourceLocation metaTileEntityId, int tier) {
 		super(metaTileEntityId, RecipeMaps.FUSION_RECIPES);
@@ -100,17 +111,17 @@ public class TileEntityFusionReactor extends RecipeMapMultiblockController {
 				.aisle("####CC###CC####", "###EccOCOccE###", "####CC###CC####")
 				.aisle("######ICI######", "####CCcccCC####", "######ICI######")
 				.aisle("###############", "######OSO######", "###############")
-				.where('S', selfPredicate())
-				.where('C', statePredicate(getCasingState()))
-				.where('c', statePredicate(getCoilState()))
-				.where('O', statePredicate(getCasingState()).or(abilityPartPredicate(MultiblockAbility.EXPORT_FLUIDS)))
-				.where('E', statePredicate(getCasingState()).or(tilePredicate((state, tile) -> {
+				.where('S', watch(selfPredicate()))
+				.where('C', watch(statePredicate(getCasingState())))
+				.where('c', watch(statePredicate(getCoilState())))
+				.where('O', watch(statePredicate(getCasingState()).or(abilityPartPredicate(MultiblockAbility.EXPORT_FLUIDS))))
+				.where('E', watch(statePredicate(getCasingState()).or(tilePredicate((state, tile) -> {
 					for (int i = tier; i < GTValues.V.length; i++) {
 						if (tile.metaTileEntityId.equals(MetaTileEntities.ENERGY_INPUT_HATCH[i].metaTileEntityId)) return true;
 					}
 					return false;
-				})))
-				.where('I', statePredicate(getCasingState()).or(abilityPartPredicate(MultiblockAbility.IMPORT_FLUIDS)))
+				}))))
+				.where('I', watch(statePredicate(getCasingState()).or(abilityPartPredicate(MultiblockAbility.IMPORT_FLUIDS))))
 				.where('#', (tile) -> true)
 				.build();
 	}
@@ -145,6 +156,17 @@ public class TileEntityFusionReactor extends RecipeMapMultiblockController {
 
 	@Override
 	public boolean checkRecipe(Recipe recipe, boolean consumeIfSuccess) {
+		Object event = RecipeFlightEvents.CHECK.begin();
+		boolean canRun = checkHeat(recipe, consumeIfSuccess);
+		RecipeFlightEvents.CHECK.commit(event, recipeMap.unlocalizedName, 1, recipe == null ? 0 : recipe.getDuration(),
+		                                canRun ? "ok" : "insufficient_heat");
+		return canRun;
+	}
+
+	/**
+	 * Checks that the reactor is, or can be heated up to, hot enough to run the recipe.
+	 */
+	private boolean checkHeat(Recipe recipe, boolean consumeIfSuccess) {
 
 		long requiredHeat;
 
@@ -160,42 +182,104 @@ public class TileEntityFusionReactor extends RecipeMapMultiblockController {
 			requiredHeat = recipe.getRecipePropertyStorage()
 								 .getRecipePropertyValue(FusionEUToStartProperty.getInstance(), 0L);
 
-		// can't run that hot
-		if(requiredHeat > energyContainer.getEnergyCapacity())
+		settleHeat();
+
+		// Can't reach required temperature. Jammed.
+		if(!canReachHeat(requiredHeat, heat, energyContainer.getEnergyCapacity(), energyContainer.getEnergyStored()))
 			return false;
 
-		// already hot enough
-		if(requiredHeat <= heat) return true;
-
-		long heatDiff = requiredHeat - heat;
-		// not hot enough, but is there enough energy to heat back up?
-		if(energyContainer.getEnergyStored() >= heatDiff) {
-			// Don't modify heat unless asked
-			if(consumeIfSuccess) {
-				// reheat the reactor and continue
-				long energyRemoved = energyContainer.removeEnergy(heatDiff);
-				// add to heat what was removed from the buffer (the resulting value is negative)
-				heat -= energyRemoved;
-			}
-			return true;
+		// Don't modify heat unless asked
+		if(consumeIfSuccess && requiredHeat > heat) {
+			// reheat the reactor and continue
+			long energyRemoved = energyContainer.removeEnergy(requiredHeat - heat);
+			// add to heat what was removed from the buffer (the resulting value is negative)
+			heat -= energyRemoved;
 		}
+		return true;
+	}
 
-		// Can't reach required temperature. Jammed.
-		return false;
+	/**
+	 * @param requiredHeat   the heat a recipe needs
+	 * @param heat           the current heat of the reactor
+	 * @param energyCapacity the size of the reactor's energy buffer
+	 * @param energyStored   the energy in the buffer, which is spent to make up any missing heat
+	 * @return {@code true} if the reactor is, or can be heated up to, {@code requiredHeat}
+	 */
+	protected static boolean canReachHeat(long requiredHeat, long heat, long energyCapacity, long energyStored) {
+		// can't run that hot
+		if(requiredHeat > energyCapacity)
+			return false;
+
+		// already hot enough, or is there enough energy to heat back up?
+		return requiredHeat <= heat || energyStored >= requiredHeat - heat;
+	}
+
+	/**
+	 * @param heat  the heat of the reactor
+	 * @param ticks the number of ticks it has not been running a recipe for
+	 * @return the heat left
+	 */
+	protected static long decayHeat(long heat, long ticks) {
+		// Compare by division so long idle spans can't overflow
+		return ticks >= heat / HEAT_DECAY_PER_TICK + 1 ? 0 : Math.max(0, heat - HEAT_DECAY_PER_TICK * ticks);
+	}
+
+	/**
+	 * @return the current heat, after decaying for as long as the reactor has not been running
+	 */
+	protected long getHeat() {
+		if(heatTime < 0 || getWorld() == null)
+			return heat;
+		return decayHeat(heat, Math.max(0, getWorld().getTotalWorldTime() - heatTime));
+	}
+
+	/**
+	 * Brings {@link #heat} up to date, so that it can be changed directly.
+	 */
+	private void settleHeat() {
+		heat = getHeat();
+		if(heatTime >= 0 && getWorld() != null)
+			heatTime = getWorld().getTotalWorldTime();
 	}
 
 	@Override
 	public void update() {
-		// check to reduce heat every tick, even when unformed, except on the first game tick
-		if(!getWorld().isRemote && heat > 0 && getTimer() > 0)
-			// if the structure isn't formed, or is formed and not operational
-			if(!isStructureFormed() ||
-			   (recipeMapWorkable.isJammed() || !recipeMapWorkable.isActive()))
-				// reduce the heat
-				heat = heat <= 10_000 ? 0 : (heat - 10_000);
+		long profileStart = MachineProfiler.begin(this);
+
+		// Heat decays while the structure isn't formed, or is formed and not operational. Rather than reducing it
+		// every tick, note when that starts and stops; getHeat() works out the decay in between. Skip the first game
+		// tick, when the structure hasn't been checked yet, so that a running reactor isn't seen as stopped on load.
+		if(!getWorld().isRemote && getTimer() > 0) {
+			boolean decaying = !isStructureFormed() || recipeMapWorkable.isJammed() || !recipeMapWorkable.isActive();
+			if(decaying != heatTime >= 0) {
+				heat = getHeat();
+				heatTime = decaying ? getWorld().getTotalWorldTime() : -1;
+			}
+		}
 
 		// then do the usual stuff
 		super.update();
+
+		MachineProfiler.end(this, profileStart);
+	}
+
+	@Override
+	protected void checkStructurePattern() {
+		if(structureWatcher.canSkipCheck(isStructureFormed(), getFrontFacing()))
+			return;
+
+		structureWatcher.beginCheck();
+		try {
+			super.checkStructurePattern();
+		} finally {
+			structureWatcher.endCheck(getWorld(), isStructureFormed(), getFrontFacing());
+		}
+	}
+
+	@Override
+	public void onRemoval() {
+		super.onRemoval();
+		structureWatcher.unregister();
 	}
 
 	@Override
@@ -212,6 +296,7 @@ public class TileEntityFusionReactor extends RecipeMapMultiblockController {
 		long energyStored = this.energyContainer.getEnergyStored();
 		super.formStructure(context);
 		this.initializeAbilities();
+		stats.reset();
 
 		// refill buffered energy, voiding any excess
 		if(this.energyContainer instanceof EnergyContainerHandler c)
@@ -232,6 +317,7 @@ public class TileEntityFusionReactor extends RecipeMapMultiblockController {
 	@Override
 	protected void updateFormedValid() {
 		if (!getWorld().isRemote) {
+			stats.update();
 			if (this.inputEnergyContainers.getEnergyStored() > 0) {
 				long energyAdded = this.energyContainer.addEnergy(this.inputEnergyContainers.getEnergyStored());
 				if (energyAdded > 0) this.inputEnergyContainers.removeEnergy(energyAdded);
@@ -271,7 +357,16 @@ public class TileEntityFusionReactor extends RecipeMapMultiblockController {
 		}
 
 		textList.add(new TextComponentString("EU: " + this.energyContainer.getEnergyStored() + " / " + this.energyContainer.getEnergyCapacity()));
-		textList.add(new TextComponentTranslation("gregtech.multiblock.fusion_reactor.heat", heat));
+		textList.add(new TextComponentTranslation("gregtech.multiblock.fusion_reactor.heat", getHeat()));
+		if (this.isStructureFormed())
+			stats.addDisplayText(textList);
+	}
+
+	@Override
+	protected void handleDisplayClick(String componentData, Widget.ClickData clickData) {
+		super.handleDisplayClick(componentData, clickData);
+		if (componentData.equals(MultiblockStats.TOGGLE_CLICK_DATA))
+			stats.toggleExpanded();
 	}
 
 	@Override
@@ -289,6 +384,22 @@ public class TileEntityFusionReactor extends RecipeMapMultiblockController {
 		@Override
 		public void updateWorkable() {
 			super.updateWorkable();
+			if(isWorkingEnabled())
+				// A jam here means the reactor can't reach the recipe's heat with the energy it has
+				stats.recordTick(MultiblockStats.classify(progressTime > 0, false, hasNotEnoughEnergy || isJammed, isOutputsFull));
+		}
+
+		@Override
+		protected void trySearchNewRecipe() {
+			long searchStart = stats.startSearch();
+			super.trySearchNewRecipe();
+			stats.endSearch(searchStart);
+		}
+
+		@Override
+		protected void setupRecipe(Recipe recipe) {
+			super.setupRecipe(recipe);
+			stats.recordRecipeStarted(1);
 		}
 
 		@Override
@@ -300,8 +411,11 @@ public class TileEntityFusionReactor extends RecipeMapMultiblockController {
 		@Override
 		public NBTTagCompound serializeNBT() {
 			NBTTagCompound tag = super.serializeNBT();
+			settleHeat();
 			tag.setLong("Heat", heat);
+			tag.setLong("HeatTime", heatTime);
 			tag.setLong("RecipeHeat", recipeHeat);
+			stats.writeToNBT(tag);
 			return tag;
 		}
 
@@ -309,7 +423,10 @@ public class TileEntityFusionReactor extends RecipeMapMultiblockController {
 		public void deserializeNBT(NBTTagCompound compound) {
 			super.deserializeNBT(compound);
 			heat = compound.getLong("Heat");
+			// Keeps decaying from when it was saved, including while the chunk was unloaded
+			heatTime = compound.hasKey("HeatTime") ? compound.getLong("HeatTime") : -1;
 			recipeHeat = compound.getLong("RecipeHeat");
+			stats.readFromNBT(compound);
 		}
 	}
 }
@@ -13,13 +13,15 @@ import gregtech.api.multiblock.*;
 import gregtech.api.recipes.*;
 import gregtech.api.recipes.Recipe.*;
 import gregtech.api.recipes.builders.*;
+import gregtech.api.recipes.machines.FuelRecipeMap;
+import gregtech.api.recipes.recipes.FuelRecipe;
 import gregtech.api.render.*;
 import gregtech.api.util.*;
 import gregtech.common.blocks.BlockMetalCasing.*;
 import gregtech.common.blocks.*;
 import gregtech.common.metatileentities.electric.*;
 import gregtech.common.sound.GTSoundEvents;
-import it.unimi.dsi.fastutil.*;
+import it.unimi.dsi.fastutil.ints.*;
 import it.unimi.dsi.fastutil.objects.*;
 import net.minecraft.block.state.*;
 import net.minecraft.item.*;
@@ -32,27 +34,20 @@ import net.minecraftforge.items.*;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.*;
-import java.util.Arrays;
 import java.util.*;
-import java.util.function.Function;
-import java.util.function.*;
-import java.util.stream.*;
 
+import static gregicadditions.recipes.RecipeMultiplication.*;
 import static gregtech.api.gui.widgets.AdvancedTextWidget.*;
-import static gregtech.api.util.Predicates.*;
 
 public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 	/**
-	 * Indicates whether the machine stack has been changed.
-	 * Will remain true if it happens during a recipe run, otherwise cleared during the next recipe setup.
+	 * Most Machine Access Interfaces a single Processing Array can work with. A lane is created for each up front,
+	 * so that client and server always agree on the set of workables.
 	 */
-	private boolean machineChanged = true;
+	public static final int MAX_MACHINE_INTERFACES = 8;
 
-	/**
-	 * Cached details about the machines used in the active recipe. Persists until the recipe is completed,
-	 * even if the structure is deformed and reformed, or the machine stack is modified.
- 	 */
-	private MachineStats activeRecipeMachineStats;
+	/** Network IDs of lanes after the first are offset by this, so their updates reach the right lane */
+	private static final int LANE_NETWORK_ID_OFFSET = 1000;
 
 	private static final MultiblockAbility<?>[] ALLOWED_ABILITIES = {
 		MultiblockAbility.IMPORT_ITEMS,
@@ -60,14 +55,45 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 		MultiblockAbility.IMPORT_FLUIDS,
 		MultiblockAbility.EXPORT_FLUIDS,
 		MultiblockAbility.INPUT_ENERGY,
+		MultiblockAbility.OUTPUT_ENERGY,
 		GACapabilities.PA_MACHINE_CONTAINER
 	};
 
 	protected boolean isDistinctInputBusMode = false;
 
+	/** Whether machines left idle by the first recipe are filled with other recipes from the remaining inputs */
+	protected boolean isPackingMode = false;
+
+	/** Whether short recipes are run as fewer, longer cycles of more operations each */
+	protected boolean isBatchMode = false;
+
+	/** Whether each lane sticks to the recipe it is running instead of looking up new ones */
+	protected boolean isRecipeLocked = false;
+
+	/** The dynamo hatches that lanes running generators output energy to */
+	protected IEnergyContainer outputEnergyContainer = new EnergyContainerList(new ArrayList<>());
+
+	/** Search times, idle reasons and parallels across all lanes */
+	protected final MultiblockStats stats = new MultiblockStats();
+
+	/** Item and fluid totals of the input buses, kept current from input change notifications */
+	private final ProcessingArrayInputIndex inputIndex = new ProcessingArrayInputIndex();
+
+	/**
+	 * One workable per Machine Access Interface, in the order the interfaces were found in the structure.
+	 * The first lane is also {@link #recipeMapWorkable}.
+	 */
+	private final ProcessingArrayWorkable[] lanes = new ProcessingArrayWorkable[MAX_MACHINE_INTERFACES];
+
+	/** The lane currently being ticked, so that {@link #checkRecipe} knows which machines to check */
+	private ProcessingArrayWorkable tickingLane;
+
 	public TileEntityProcessingArray(ResourceLocation metaTileEntityId) {
 		super(metaTileEntityId, GARecipeMaps.PROCESSING_ARRAY_RECIPES);
-		this.recipeMapWorkable = new ProcessingArrayWorkable(this);
+		for(int i = 0; i < lanes.length; i++)
+			lanes[i] = new ProcessingArrayWorkable(this, i);
+		this.recipeMapWorkable = lanes[0];
+		this.tickingLane = lanes[0];
 	}
 
 	/** Payload for recipe map packet when the map is null */
@@ -82,10 +108,102 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 		return ((ProcessingArrayWorkable)this.recipeMapWorkable).getSound();
 	}
 
+	@Override
+	public void update() {
+		long profileStart = MachineProfiler.begin(this);
+		super.update();
+		MachineProfiler.end(this, profileStart);
+	}
+
 	@Override
 	protected void updateFormedValid() {
-		super.updateFormedValid();
-		((ProcessingArrayWorkable) recipeMapWorkable).findMachineStack();
+		int machineInterfaces = getAbilities(GACapabilities.PA_MACHINE_CONTAINER).size();
+		boolean workingEnabled = recipeMapWorkable.isWorkingEnabled();
+		stats.update();
+		distributeNotifications();
+
+		for(int i = 0; i < lanes.length; i++) {
+			ProcessingArrayWorkable lane = lanes[i];
+
+			// Lanes without an interface have nothing to do once they've been cleared
+			if(i >= machineInterfaces && lane.machineItemStack.isEmpty())
+				continue;
+
+			// Idle lanes stay parked until something they depend on changes
+			if(lane.isSleeping) {
+				if(!shouldWake(lane)) {
+					recordLaneTick(lane);
+					continue;
+				}
+				lane.wakeUp();
+			}
+
+			tickingLane = lane;
+			if(i == 0)
+				super.updateFormedValid();
+			else {
+				// The controller's toggle applies to every lane
+				if(lane.isWorkingEnabled() != workingEnabled)
+					lane.setWorkingEnabled(workingEnabled);
+				lane.updateWorkable();
+			}
+			lane.findMachineStack();
+			lane.updateSleepState();
+			recordLaneTick(lane);
+		}
+		tickingLane = lanes[0];
+	}
+
+	/**
+	 * Hands the input and output changes reported since the last tick to every lane. A lane keeps them until it
+	 * next looks for a recipe, however long the recipe it is running takes, so the shared lists can be cleared
+	 * straight away.
+	 */
+	private void distributeNotifications() {
+		inputIndex.markChanged(getNotifiedItemInputList(), getNotifiedFluidInputList());
+		boolean outputsChanged = !getNotifiedItemOutputList().isEmpty() || !getNotifiedFluidOutputList().isEmpty();
+		for(ProcessingArrayWorkable lane : lanes) {
+			lane.addInputChanges(getNotifiedItemInputList(), !getNotifiedFluidInputList().isEmpty());
+			lane.outputsChanged |= outputsChanged;
+		}
+		getNotifiedItemInputList().clear();
+		getNotifiedFluidInputList().clear();
+		getNotifiedItemOutputList().clear();
+		getNotifiedFluidOutputList().clear();
+	}
+
+	/**
+	 * Records what a lane did this tick. Empty and paused lanes aren't counted, as they aren't meant to be working.
+	 */
+	private void recordLaneTick(ProcessingArrayWorkable lane) {
+		if(!lane.machineItemStack.isEmpty() && lane.isWorkingEnabled())
+			stats.recordTick(lane.idleReason);
+	}
+
+	/**
+	 * @param lane a sleeping lane
+	 * @return {@code true} if anything that could let the lane start a recipe has changed since it went to sleep:
+	 *         its inputs or outputs, or enough energy having been stored. Machine changes wake the lane directly,
+	 *         so input changes only matter once it has machines to look for recipes with.
+	 */
+	private boolean shouldWake(ProcessingArrayWorkable lane) {
+		return (lane.hasInputChanges() && !lane.machineItemStack.isEmpty())
+			   || (lane.isOutputsFull && lane.outputsChanged)
+			   || (lane.energyWakeThreshold > 0 && energyContainer.getEnergyStored() >= lane.energyWakeThreshold)
+			   || (lane.isOutputBlocked && outputEnergyContainer.getEnergyCanBeInserted() >= lane.machineVoltage);
+	}
+
+	@Override
+	protected boolean checkStructureComponents(List<IMultiblockPart> parts, Map<MultiblockAbility<Object>, List<Object>> abilities) {
+		// An array of generators has dynamo hatches instead of energy hatches
+		return abilities.containsKey(MultiblockAbility.INPUT_ENERGY) || abilities.containsKey(MultiblockAbility.OUTPUT_ENERGY);
+	}
+
+	@Override
+	protected void formStructure(PatternMatchContext context) {
+		super.formStructure(context);
+		stats.reset();
+		this.outputEnergyContainer = new EnergyContainerList(getAbilities(MultiblockAbility.OUTPUT_ENERGY));
 	}
 
 	@Override
@@ -96,7 +214,7 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 		                          .aisle("XXX", "X#X", "XXX")
 		                          .aisle("XXX", "XSX", "XXX")
 		                          .setAmountAtLeast('L', 12)
-		                          .setAmountLimit('M', 1, 1)
+		                          .setAmountLimit('M', 1, Math.min(MAX_MACHINE_INTERFACES, GAConfig.processingArray.machineInterfaceLimit))
 		                          .where('M', abilityPartPredicate(GACapabilities.PA_MACHINE_CONTAINER))
 		                          .where('L', statePredicate(getCasingState()))
 		                          .where('S', selfPredicate())
@@ -132,17 +250,33 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 		if(!isStructureFormed())
 			return;
 
-		// If a recipe is running
-		if(activeRecipeMachineStats != null) {
+		for(ProcessingArrayWorkable lane : lanes) {
+			if(lane.isGeneratorLane() && lane.fuelDurationLeft > 0)
+				textList.add(new TextComponentTranslation("gtadditions.multiblock.processing_array.generating",
+				                                          lane.fuelOutputEUt,
+				                                          new TextComponentTranslation("recipemap." + lane.machineEntry.getMapName() + ".name"),
+				                                          GTValues.VN[lane.machineTier],
+				                                          lane.generatorsRunning));
+
+			MachineStats activeRecipeMachineStats = lane.activeRecipeMachineStats;
+
+			// Only lanes running a recipe have anything to show
+			if(activeRecipeMachineStats == null)
+				continue;
+
 			// display the recipe's stats
 			textList.add(new TextComponentTranslation("gtadditions.multiblock.processing_array.recipe",
 						 new TextComponentTranslation("recipemap." + activeRecipeMachineStats.recipeMap.unlocalizedName + ".name"),
 						 GTValues.VN[activeRecipeMachineStats.machineTier],
 						 activeRecipeMachineStats.parallels));
 
+			textList.add(new TextComponentTranslation("gtadditions.multiblock.processing_array.recipe_cache",
+			                                          lane.getRecipeCacheHits(),
+			                                          lane.getRecipeCacheMisses()));
+
 			// If jammed, display the detected machine (if any)
-			if(getWorkable().isJammed()) {
-				MachineStats detectedStats = getDetectedMachineStats();
+			if(lane.isJammed()) {
+				MachineStats detectedStats = getDetectedMachineStats(lane.laneIndex);
 
 				// Only show if machines are the issue, otherwise it would be confusing
 				if(detectedStats == null)
@@ -168,28 +302,52 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 		}
 		else
 			textList.add(makeDistinctModeUnavailableTextComponent());
+
+		textList.add(makeModeToggleButton("packing", isPackingMode));
+
+		textList.add(makeModeToggleButton("batch", isBatchMode));
+		textList.add(makeModeToggleButton("lock", isRecipeLocked));
+
+		stats.addDisplayText(textList);
 	}
 
 	/**
-	 * @return information about the contents of the machine holder, or {@code null} if the holder is empty.
+	 * @param laneIndex the lane whose machine holder to inspect
+	 * @return information about the contents of the machine holder, or {@code null} if the holder is empty or missing.
 	 */
 	@Nullable
-	private MachineStats getDetectedMachineStats() {
-		ItemStack stack = getAbilities(GACapabilities.PA_MACHINE_CONTAINER).get(0).getStackInSlot(0);
+	private MachineStats getDetectedMachineStats(int laneIndex) {
+		List<IItemHandlerModifiable> holders = getAbilities(GACapabilities.PA_MACHINE_CONTAINER);
+		if(laneIndex >= holders.size())
+			return null;
+
+		ItemStack stack = holders.get(laneIndex).getStackInSlot(0);
 
 		if(stack == ItemStack.EMPTY)
 			return null;
 
-		RecipeMap<?> rmap = ProcessingArrayWorkable.findRecipeMapAndCheckValid(stack);
-		if(rmap == null)
+		ProcessingArrayMachineRegistry.MachineEntry entry = getMachineEntry(stack);
+		if(entry == null || entry.recipeMap == null)
 			return null;
-		MetaTileEntity mte = MachineItemBlock.getMetaTileEntity(stack);
-		//Find the voltage tier of the machine.
-		int machineTier = 0;
-		if(mte instanceof ITieredMetaTileEntity tmte)
-			machineTier = tmte.getTier();
 
-		return new MachineStats(machineTier, stack.getCount(), rmap);
+		return new MachineStats(entry.tier, stack.getCount(), entry.recipeMap);
+	}
+
+	/**
+	 * @param machineStack the contents of a machine holder
+	 * @return the details of the machine, or {@code null} if it can't be used in a Processing Array
+	 */
+	@Nullable
+	protected ProcessingArrayMachineRegistry.MachineEntry getMachineEntry(ItemStack machineStack) {
+		return ProcessingArrayMachineRegistry.getEligible(machineStack);
+	}
+
+	/**
+	 * @param laneIndex the index of a Machine Access Interface
+	 * @return the workable running the machines of that interface
+	 */
+	ProcessingArrayWorkable getLane(int laneIndex) {
+		return lanes[laneIndex];
 	}
 
 	private ITextComponent makeDistinctModeToggleButton(String translationKey) {
@@ -199,6 +357,19 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 		return label.appendText(" ").appendSibling(modeButton);
 	}
 
+	/**
+	 * @param mode    the mode's name, used as the click data and to find its translation keys
+	 * @param enabled whether the mode is currently on
+	 * @return a label with a clickable Yes/No toggle for the mode
+	 */
+	private ITextComponent makeModeToggleButton(String mode, boolean enabled) {
+		String translationKey = "gtadditions.multiblock.processing_array." + mode;
+		ITextComponent label = new TextComponentTranslation(translationKey);
+		ITextComponent modeButton = withButton(new TextComponentTranslation(translationKey + (enabled ? ".yes" : ".no")), mode);
+		withHoverTextTranslate(modeButton, translationKey + ".info");
+		return label.appendText(" ").appendSibling(modeButton);
+	}
+
 	private ITextComponent makeDistinctModeUnavailableTextComponent() {
 		ITextComponent label = new TextComponentTranslation("gtadditions.multiblock.processing_array.distinct");
 		ITextComponent modeText = new TextComponentTranslation("gtadditions.multiblock.processing_array.distinct.disabled");
@@ -211,38 +382,69 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 		super.handleDisplayClick(componentData, clickData);
 		if(componentData.equals("distinct"))
 			isDistinctInputBusMode = !isDistinctInputBusMode;
+		else if(componentData.equals("packing"))
+			isPackingMode = !isPackingMode;
+		else if(componentData.equals("batch"))
+			isBatchMode = !isBatchMode;
+		else if(componentData.equals("lock")) {
+			isRecipeLocked = !isRecipeLocked;
+			for(ProcessingArrayWorkable lane : lanes)
+				lane.onRecipeLockToggled();
+		}
+		else if(componentData.equals(MultiblockStats.TOGGLE_CLICK_DATA))
+			stats.toggleExpanded();
 	}
 
 	@Override
 	public NBTTagCompound writeToNBT(NBTTagCompound data) {
 		super.writeToNBT(data);
 		data.setBoolean("Distinct", isDistinctInputBusMode);
+		data.setBoolean("Packing", isPackingMode);
+		data.setBoolean("Batch", isBatchMode);
+		data.setBoolean("RecipeLocked", isRecipeLocked);
+		stats.writeToNBT(data);
 
 		// Serialize the MachineStats details so it works across reloads
-		if(activeRecipeMachineStats != null) {
-			NBTTagCompound activeRecipeTag = new NBTTagCompound();
-			activeRecipeTag.setString("RecipeMap", activeRecipeMachineStats.recipeMap.unlocalizedName);
-			activeRecipeTag.setInteger("Tier", activeRecipeMachineStats.machineTier);
-			activeRecipeTag.setInteger("Parallels", activeRecipeMachineStats.parallels);
-			data.setTag("ActiveRecipe", activeRecipeTag);
+		for(ProcessingArrayWorkable lane : lanes) {
+			MachineStats activeRecipeMachineStats = lane.activeRecipeMachineStats;
+			if(activeRecipeMachineStats != null) {
+				NBTTagCompound activeRecipeTag = new NBTTagCompound();
+				activeRecipeTag.setString("RecipeMap", activeRecipeMachineStats.recipeMap.unlocalizedName);
+				activeRecipeTag.setInteger("Tier", activeRecipeMachineStats.machineTier);
+				activeRecipeTag.setInteger("Parallels", activeRecipeMachineStats.parallels);
+				data.setTag(getActiveRecipeTagName(lane.laneIndex), activeRecipeTag);
+			}
 		}
 		return data;
 	}
 
+	/** The first lane keeps the original tag name, so that arrays from older saves resume their recipe */
+	private static String getActiveRecipeTagName(int laneIndex) {
+		return laneIndex == 0 ? "ActiveRecipe" : "ActiveRecipe" + laneIndex;
+	}
+
 	@Override
 	public void readFromNBT(NBTTagCompound data) {
 		super.readFromNBT(data);
 		isDistinctInputBusMode = data.getBoolean("Distinct");
+		isPackingMode = data.getBoolean("Packing");
+		isBatchMode = data.getBoolean("Batch");
+		isRecipeLocked = data.getBoolean("RecipeLocked");
+		stats.readFromNBT(data);
+
+		// Deserialize active recipes if present
+		for(ProcessingArrayWorkable lane : lanes) {
+			String tagName = getActiveRecipeTagName(lane.laneIndex);
+			if(!data.hasKey(tagName))
+				continue;
 
-		// Deserialize active recipe if present
-		if(data.hasKey("ActiveRecipe")) {
-			NBTTagCompound activeRecipeTag = data.getCompoundTag("ActiveRecipe");
+			NBTTagCompound activeRecipeTag = data.getCompoundTag(tagName);
 
 			RecipeMap<?> recipeMap = RecipeMap.getByName(activeRecipeTag.getString("RecipeMap"));
 			if(recipeMap != null)
-				activeRecipeMachineStats = new MachineStats(activeRecipeTag.getInteger("Tier"),
-															activeRecipeTag.getInteger("Parallels"),
-															recipeMap);
+				lane.activeRecipeMachineStats = new MachineStats(activeRecipeTag.getInteger("Tier"),
+																 activeRecipeTag.getInteger("Parallels"),
+																 recipeMap);
 		}
 	}
 
@@ -250,6 +452,9 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 	public void writeInitialSyncData(PacketBuffer buf) {
 		super.writeInitialSyncData(buf);
 		buf.writeBoolean(isDistinctInputBusMode);
+		buf.writeBoolean(isPackingMode);
+		buf.writeBoolean(isBatchMode);
+		buf.writeBoolean(isRecipeLocked);
 
 		if(recipeMapWorkable instanceof ProcessingArrayWorkable paw && paw.recipeMap != null)
 			buf.writeString(paw.recipeMap.unlocalizedName);
@@ -261,6 +466,9 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 	public void receiveInitialSyncData(PacketBuffer buf) {
 		super.receiveInitialSyncData(buf);
 		this.isDistinctInputBusMode = buf.readBoolean();
+		this.isPackingMode = buf.readBoolean();
+		this.isBatchMode = buf.readBoolean();
+		this.isRecipeLocked = buf.readBoolean();
 		if(this.recipeMapWorkable instanceof ProcessingArrayWorkable paw)
 			paw.recipeMap = RecipeMap.getByName(buf.readString(MAP_NAME_LENGTH));
 	}
@@ -268,26 +476,42 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 	@Override
 	public void invalidateStructure() {
 		super.invalidateStructure();
-		((ProcessingArrayWorkable) this.recipeMapWorkable).invalidate();
+		for(ProcessingArrayWorkable lane : lanes)
+			lane.invalidate();
+		inputIndex.invalidate();
+		this.outputEnergyContainer = new EnergyContainerList(new ArrayList<>());
 	}
 
-	public void notifyMachineChanged() {
-		getWorkable().invalidate();
+	/**
+	 * Called by a Machine Access Interface when its contents change.
+	 *
+	 * @param machineHandler the interface's item handler
+	 */
+	public void notifyMachineChanged(IItemHandler machineHandler) {
+		int laneIndex = getAbilities(GACapabilities.PA_MACHINE_CONTAINER).indexOf(machineHandler);
+		if(laneIndex >= 0 && laneIndex < lanes.length)
+			lanes[laneIndex].invalidate();
+		else
+			// Not part of the formed structure (yet); there's no telling which lane it belongs to
+			for(ProcessingArrayWorkable lane : lanes)
+				lane.invalidate();
 	}
 
 	@Override
 	public boolean checkRecipe(Recipe recipe, boolean consumeIfSuccess) {
+		MachineStats activeRecipeMachineStats = tickingLane.activeRecipeMachineStats;
+
 		// if stats are null here, this is a recipe started in SoG 3.0.0 or earlier.
 		// Let it proceed to completion for now, and the next run will have the data available.
 		if(activeRecipeMachineStats == null)
 			return true;
 
 		// if the structure is intact we don't need to do any additional checks
-		if (!machineChanged)
+		if (!tickingLane.machineChanged)
 			return true;
 
 		// If the structure was broken and reformed, we need to see if the current machines are suitable
-		MachineStats stats = getDetectedMachineStats();
+		MachineStats stats = getDetectedMachineStats(tickingLane.laneIndex);
 
 		// No machine, can't proceed
 		if(stats == null)
@@ -298,6 +522,31 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 	}
 
 	protected class ProcessingArrayWorkable extends MultiblockRecipeLogic {
+		/** Which Machine Access Interface this workable runs the machines of */
+		final int laneIndex;
+		/**
+		 * Indicates whether the machine stack has been changed.
+		 * Will remain true if it happens during a recipe run, otherwise cleared during the next recipe setup.
+		 */
+		boolean machineChanged = true;
+		/**
+		 * Cached details about the machines used in the active recipe. Persists until the recipe is completed,
+		 * even if the structure is deformed and reformed, or the machine stack is modified.
+		 */
+		MachineStats activeRecipeMachineStats;
+		/**
+		 * Set when the lane is idle after a tick; the controller stops ticking it until {@link #shouldWake} says
+		 * something has changed, or the machines are changed.
+		 */
+		boolean isSleeping = false;
+		/** The stored energy needed to start the recipe that last failed for lack of energy, otherwise 0 */
+		long energyWakeThreshold = 0L;
+		/** Set when a recipe completes, so the lane stays awake for the search that follows */
+		boolean completedThisTick = false;
+		/** Set when generators could not start burning fuel because the dynamo hatches were full */
+		boolean isOutputBlocked = false;
+		/** What the lane was doing as of its last tick, recorded every tick while it sleeps */
+		MultiblockStats.IdleReason idleReason = MultiblockStats.IdleReason.NO_INPUT;
 		/** The voltage this machine operates at */
 		long machineVoltage;
 		/** The GTValues.V tier ordinal for the machine's tier */
@@ -305,6 +554,8 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 		int numberOfMachines = 0;
 		int numberOfOperations = 0;
 		ItemStack machineItemStack = ItemStack.EMPTY;
+		/** The resolved details of the machine in the holder, or {@code null} if there is none */
+		ProcessingArrayMachineRegistry.MachineEntry machineEntry = null;
 		RecipeMap<?> recipeMap = null;
 
 		/** dataID for recipe map update packets, to sync with client */
@@ -313,11 +564,90 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 		// Stuff for Distinct Mode
 		/** Index of the last bus used for distinct mode */
 		int lastRecipeIndex = 0;
-		/** Records invalidated inputs for Distinct Mode logic */
-		List<IItemHandlerModifiable> invalidatedInputList = new ArrayList<>();
+		/** Buses, by their index in {@link #getInputBuses()}, where no recipe was found since they last changed */
+		final BitSet invalidatedBuses = new BitSet();
+		/**
+		 * For each invalidated bus, the fluids used by the recipes its items could take part in.
+		 * Only a change to one of these fluids can make a recipe appear on that bus.
+		 */
+		final Int2ObjectOpenHashMap<Set<Fluid>> busFluidDependencies = new Int2ObjectOpenHashMap<>();
+		/** The input index's fluid change counter as of this lane's last check for fluid changes */
+		long lastFluidCheck = 0L;
+		/** Maps each bus, and each handler backing it, to the bus's index */
+		final Reference2IntOpenHashMap<IItemHandler> busIndices = new Reference2IntOpenHashMap<>();
+		/** Set when the buses may have changed, so that {@link #busIndices} is rebuilt before its next use */
+		boolean busIndicesStale = true;
+		/** The bus the next distinct search starts from, so that every bus gets its turn */
+		int searchCursor = 0;
+		/** Input buses that reported a change since this lane last looked for a recipe */
+		final Set<IItemHandler> changedItemInputs = new ReferenceOpenHashSet<>();
+		/** Whether an input tank reported a change since this lane last looked for a recipe */
+		boolean fluidInputsChanged = false;
+		/** Whether an output bus or hatch reported a change since this lane last checked for output space */
+		boolean outputsChanged = false;
+
+		/** Recently multiplied recipes, least recently used first */
+		private final Map<MultipliedRecipeKey, Recipe> multipliedRecipeCache =
+			new LinkedHashMap<MultipliedRecipeKey, Recipe>(16, 0.75F, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<MultipliedRecipeKey, Recipe> eldest) {
+					return size() > GAConfig.processingArray.recipeCacheSize;
+				}
+			};
+
+		/** Reused for cache lookups, so that a hit does not allocate */
+		private final MultipliedRecipeKey cacheLookupKey = new MultipliedRecipeKey();
+
+		private long recipeCacheHits = 0;
+		private long recipeCacheMisses = 0;
+
+		// Stuff for Packing Mode
+		/** Whether the current cycle combines several different recipes */
+		boolean isPacked = false;
+		/** Summed overclocked EU/t of every sub-batch in a packed cycle */
+		long packedEUt = 0L;
+		/** Overclocked duration of the slowest sub-batch in a packed cycle */
+		int packedDuration = 0;
+		/** For each chanced output of a packed cycle, the number of operations of the sub-batch it came from */
+		int[] packedChancedTrials = new int[0];
+
+		// Stuff for Recipe Lock
+		/**
+		 * The base recipe this lane is locked to while the lock is on. {@code null} until the lane has found one;
+		 * it is not saved, so after a reload the first recipe found is locked in again.
+		 */
+		Recipe lockedRecipe = null;
+		/** The machine in the holder when the recipe was locked; a different machine releases the lock */
+		ItemStack lockedMachineStack = ItemStack.EMPTY;
+
+		// Stuff for Generators
+		/** Ticks left on the fuel currently burning */
+		int fuelDurationLeft = 0;
+		/** Combined EU/t output of the generators burning fuel */
+		long fuelOutputEUt = 0L;
+		/** How many generators are burning fuel; fewer than in the holder if there was not enough fuel for all */
+		int generatorsRunning = 0;
+		/** The last fuel burned, checked first on the next lookup */
+		FuelRecipe previousFuelRecipe = null;
 
 		public ProcessingArrayWorkable(RecipeMapMultiblockController tileEntity) {
+			this(tileEntity, 0);
+		}
+
+		public ProcessingArrayWorkable(RecipeMapMultiblockController tileEntity, int laneIndex) {
 			super(tileEntity);
+			this.laneIndex = laneIndex;
+		}
+
+		// The first lane keeps the default name and ID so that existing saves and packets still line up
+		@Override
+		public String getName() {
+			return laneIndex == 0 ? super.getName() : super.getName() + laneIndex;
+		}
+
+		@Override
+		public int getNetworkID() {
+			return laneIndex == 0 ? super.getNetworkID() : LANE_NETWORK_ID_OFFSET + laneIndex;
 		}
 
 		@Override
@@ -335,12 +665,44 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 			super.invalidate();
 			isOutputsFull = false;
 			lastRecipeIndex = 0;
-			invalidatedInputList.clear();
+			searchCursor = 0;
+			clearInvalidatedBuses();
+			clearInputChanges();
+			outputsChanged = false;
+			busIndicesStale = true;
 			machineItemStack = ItemStack.EMPTY;
+			machineEntry = null;
 			machineChanged = true;
 			machineTier = 0;
 			machineVoltage = 0L;
 			recipeMap = null;
+			isPacked = false;
+			fuelDurationLeft = 0;
+			fuelOutputEUt = 0L;
+			generatorsRunning = 0;
+			previousFuelRecipe = null;
+			wakeUp();
+		}
+
+		void wakeUp() {
+			isSleeping = false;
+			energyWakeThreshold = 0L;
+			isOutputBlocked = false;
+		}
+
+		/**
+		 * Puts the lane to sleep if nothing is running after its tick. Paused lanes stay awake, so they pick up
+		 * where they left off when resumed, as do lanes that only just completed a recipe and have yet to search.
+		 */
+		void updateSleepState() {
+			isSleeping = progressTime == 0 && fuelDurationLeft == 0 && isWorkingEnabled() && !completedThisTick;
+			completedThisTick = false;
+
+			if(isGeneratorLane())
+				idleReason = fuelDurationLeft > 0 ? MultiblockStats.IdleReason.NONE :
+					isOutputBlocked ? MultiblockStats.IdleReason.OUTPUT_FULL : MultiblockStats.IdleReason.NO_INPUT;
+			else
+				idleReason = MultiblockStats.classify(progressTime > 0, isJammed, hasNotEnoughEnergy || energyWakeThreshold > 0, isOutputsFull);
 		}
 
 		@Override
@@ -360,7 +722,7 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 				machineChanged = false;
 				previousRecipe = null;
 				if(isDistinctInputBusMode) {
-					invalidatedInputList.clear();
+					clearInvalidatedBuses();
 				} else {
 					invalidInputsForRecipes = false;
 				}
@@ -391,6 +753,22 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 
 
 		protected Recipe multiplyRecipe(IItemHandlerModifiable inputs, IMultipleTankHandler fluidInputs, Recipe recipe, ItemStack machineStack, RecipeMap<?> rmap) {
+			Object event = RecipeFlightEvents.MULTIPLY.begin();
+			Recipe multipliedRecipe = multiplyRecipeToInputs(inputs, fluidInputs, recipe, machineStack, rmap);
+			RecipeFlightEvents.MULTIPLY.commit(event,
+			                                   rmap == null ? null : rmap.unlocalizedName,
+			                                   multipliedRecipe == null ? 0 : this.numberOfOperations,
+			                                   recipe.getDuration(),
+			                                   multipliedRecipe == null ? "no_inputs" : "multiplied");
+			return multipliedRecipe;
+		}
+
+		/**
+		 * @return the recipe multiplied by as many operations as the machines and inputs allow, or {@code null} if the
+		 *         inputs don't cover a single one
+		 * @see #multiplyRecipe
+		 */
+		private Recipe multiplyRecipeToInputs(IItemHandlerModifiable inputs, IMultipleTankHandler fluidInputs, Recipe recipe, ItemStack machineStack, RecipeMap<?> rmap) {
 			//Check if passed a null recipemap or machine stack
 			if(rmap == null || machineStack == null) {
 				return null;
@@ -399,11 +777,15 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 			//Find the number of machines
 			this.numberOfMachines = Math.min(GAConfig.processingArray.processingArrayMachineLimit, machineStack.getCount());
 
-			Set<ItemStack> ingredientStacks = findAllItemsInInputs(inputs);
-			Map<String, Integer> fluidStacks = findAllFluidsInInputs(fluidInputs);
+			// Bring the input totals up to date; only buses that reported a change are rescanned
+			inputIndex.markChanged(metaTileEntity.getNotifiedItemInputList(), metaTileEntity.getNotifiedFluidInputList());
+			inputIndex.update(getInputBuses(), fluidInputs);
 
-			int itemMultiplier = getMinRatioItem(ingredientStacks, recipe, this.numberOfMachines);
-			int fluidMultiplier = getMinRatioFluid(fluidStacks, recipe, this.numberOfMachines);
+			// In batch mode, each machine may run several operations back to back within one longer cycle
+			int maxOperations = this.numberOfMachines * (isBatchMode ? getOperationsPerMachine(recipe) : 1);
+
+			int itemMultiplier = getMinRatioItem(inputIndex.getItemCounts(inputs), recipe, maxOperations);
+			int fluidMultiplier = getMinRatioFluid(inputIndex.getFluidCounts(), recipe, maxOperations);
 
 			int minMultiplier = Math.min(itemMultiplier, fluidMultiplier);
 
@@ -413,228 +795,342 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 				return null;
 			}
 
-			List<CountableIngredient> newRecipeInputs = new ArrayList<>();
-			List<FluidStack> newFluidInputs = new ArrayList<>();
-			List<ItemStack> outputI = new ArrayList<>();
-			List<FluidStack> outputF = new ArrayList<>();
-			this.multiplyInputsAndOutputs(newRecipeInputs,
-			                              newFluidInputs,
-			                              outputI,
-			                              outputF,
-			                              recipe,
-			                              minMultiplier);
-
-			RecipeBuilder<?> newRecipe = rmap.recipeBuilder()
-			                                 .inputsIngredients(newRecipeInputs)
-			                                 .fluidInputs(newFluidInputs)
-			                                 .outputs(outputI)
-			                                 .fluidOutputs(outputF)
-			                                 .EUt(recipe.getEUt())
-			                                 .duration(recipe.getDuration());
-
-			//Don't allow MV or LV macerators to have chanced outputs, because they do not have the slots for chanced
-			MetaTileEntity mte = MachineItemBlock.getMetaTileEntity(machineStack);
-			if(!(mte instanceof MetaTileEntityMacerator && this.machineTier < GTValues.HV))
-				copyChancedItemOutputs(newRecipe, recipe, minMultiplier);
+			// The inputs no longer cover a single operation
+			if(minMultiplier <= 0)
+				return null;
 
 			this.numberOfOperations = minMultiplier;
-			return newRecipe.build().getResult();
+			return getMultipliedRecipe(rmap, recipe, minMultiplier, keepChancedOutputs());
 		}
 
-		protected static void copyChancedItemOutputs(RecipeBuilder<?> newRecipe,
-		                                             Recipe oldRecipe,
-		                                             int numberOfOperations) {
-			for(ChanceEntry entry : oldRecipe.getChancedOutputs()) {
-				int chance = entry.getChance();
-				ItemStack itemStack = entry.getItemStack().copy();
-				int boost = entry.getBoostPerTier();
-				itemStack.setCount(itemStack.getCount() * numberOfOperations);
-
-				newRecipe.chancedOutput(itemStack, chance, boost);
-			}
+		/**
+		 * @param recipe the recipe to be multiplied
+		 * @return how many operations each machine runs per cycle in batch mode, so that a cycle lasts at least the
+		 *         configured minimum length
+		 */
+		protected int getOperationsPerMachine(Recipe recipe) {
+			int duration = Math.max(1, calculateOverclock(recipe)[1]);
+			int minCycleLength = GAConfig.processingArray.batchModeCycleLength;
+			return Math.max(1, (minCycleLength + duration - 1) / duration);
 		}
 
-		protected List<IItemHandlerModifiable> getInputBuses() {
-			RecipeMapMultiblockController controller = (RecipeMapMultiblockController) metaTileEntity;
-			return controller.getAbilities(MultiblockAbility.IMPORT_ITEMS);
+		/**
+		 * @param operations the number of operations in a cycle
+		 * @return how many times longer than a single operation the cycle runs. Always 1 unless batch mode packed
+		 *         more operations than there are machines.
+		 */
+		protected int getBatchFactor(int operations) {
+			int machines = Math.max(1, this.numberOfMachines);
+			return Math.max(1, (operations + machines - 1) / machines);
 		}
 
-		protected static Set<ItemStack> findAllItemsInInputs(IItemHandlerModifiable inputs) {
-			Hash.Strategy<ItemStack> strategy = ItemStackHashStrategy.comparingAllButCount();
-			final Supplier<Map<ItemStack, Integer>> mapSupplier =
-				() -> new Object2IntOpenCustomHashMap<>(strategy);
-
-			final Set<ItemStack> result = new ObjectOpenCustomHashSet<>(strategy);
-
-			StreamUtils.streamFrom(inputs)
-			           // keep only non-empty item stacks
-			           .filter(not(ItemStack::isEmpty))
-			           // Track the number of identical items
-			           .collect(Collectors.toMap(Function.identity(),
-			                                     ItemStack::getCount,
-			                                     Math::addExact,
-			                                     mapSupplier))
-			           // Create a single stack of the combined count for each item
-			           .entrySet().stream()
-			           .map(entry -> {
-				           ItemStack combined = entry.getKey().copy();
-				           combined.setCount(entry.getValue());
-				           return combined;
-			           })
-			           .forEach(result::add);
-			return result;
-		}
-
-		protected int getMinRatioItem(Set<ItemStack> countIngredients,
-		                              Recipe recipe,
-		                              int numberOfMachines) {
-
-			int minMultiplier = Integer.MAX_VALUE;
-			for(CountableIngredient recipeInputs : recipe.getInputs()) {
+		/** Division rounding away from zero, so that spreading energy over a batch never undercharges */
+		protected static long ceilDiv(long dividend, int divisor) {
+			return dividend >= 0 ? (dividend + divisor - 1) / divisor : dividend / divisor;
+		}
 
-				if(recipeInputs.getCount() == 0)
-					continue;
+		/**
+		 * Don't allow MV or LV macerators to have chanced outputs, because they do not have the slots for chanced
+		 *
+		 * @return whether multiplied recipes should carry over the chanced outputs of the machine in the holder
+		 */
+		protected boolean keepChancedOutputs() {
+			MetaTileEntity mte = machineEntry == null ? null : machineEntry.metaTileEntity;
+			return !(mte instanceof MetaTileEntityMacerator && this.machineTier < GTValues.HV);
+		}
 
-				for(ItemStack wholeItemStack : countIngredients) {
+		/**
+		 * Fills the machines left idle by {@code multipliedRecipe} with other recipes that the remaining inputs allow.
+		 * Each sub-batch is sized from whatever the previous ones left over. All sub-batches run together as one
+		 * combined recipe, drawing their summed EU/t for as long as the slowest of them takes.
+		 *
+		 * @param baseRecipe       the first recipe found
+		 * @param multipliedRecipe {@code baseRecipe} multiplied to {@link #numberOfOperations}
+		 * @return a recipe combining every sub-batch, or {@code multipliedRecipe} if nothing else fits
+		 */
+		protected Recipe packRecipes(Recipe baseRecipe, Recipe multipliedRecipe) {
+			int idleMachines = this.numberOfMachines - this.numberOfOperations;
+			if(idleMachines <= 0)
+				return multipliedRecipe;
 
-					if(recipeInputs.getIngredient().apply(wholeItemStack)) {
-						int ratio = Math.min(numberOfMachines, wholeItemStack.getCount() / recipeInputs.getCount());
-						if(ratio < minMultiplier)
-							minMultiplier = ratio;
-						break;
-					}
+			// Work on copies of the input totals; each sub-batch takes its share out of them
+			Object2IntOpenCustomHashMap<ItemStack> itemBudget =
+				new Object2IntOpenCustomHashMap<>(inputIndex.getItemCounts(), ItemStackHashStrategy.comparingAllButCount());
+			Object2IntOpenHashMap<Fluid> fluidBudget = new Object2IntOpenHashMap<>(inputIndex.getFluidCounts());
+			takeFromBudget(itemBudget, fluidBudget, multipliedRecipe);
 
-				}
+			//Format: EU/t, duration
+			int[] overclock = calculateOverclock(baseRecipe);
+			long totalEUt = (long) overclock[0] * this.numberOfOperations;
+			int longestDuration = overclock[1];
+			int totalOperations = this.numberOfOperations;
+
+			boolean keepChancedOutputs = keepChancedOutputs();
+			long voltage = Math.min(this.machineVoltage, getMaxVoltage());
+			int outputTankCapacity = getMinTankCapacity(getOutputTank());
+
+			List<Recipe> batches = new ArrayList<>();
+			IntList batchOperations = new IntArrayList();
+			batches.add(multipliedRecipe);
+			batchOperations.add(this.numberOfOperations);
+			Set<Recipe> packedRecipes = Collections.newSetFromMap(new IdentityHashMap<>());
+			packedRecipes.add(baseRecipe);
+
+			while(idleMachines > 0) {
+				Recipe nextRecipe = this.recipeMap.findRecipe(voltage,
+				                                              toItemList(itemBudget),
+				                                              toFluidList(fluidBudget),
+				                                              outputTankCapacity);
+
+				// The lookup always returns the same match for the same inputs, so a repeat means nothing else fits
+				if(nextRecipe == null || !packedRecipes.add(nextRecipe))
+					break;
+
+				int multiplier = Math.min(getMinRatioItem(itemBudget, nextRecipe, idleMachines),
+				                          getMinRatioFluid(fluidBudget, nextRecipe, idleMachines));
+				if(multiplier <= 0 || multiplier == Integer.MAX_VALUE)
+					break;
+
+				Recipe batch = getMultipliedRecipe(this.recipeMap, nextRecipe, multiplier, keepChancedOutputs);
+				if(batch == null)
+					break;
+
+				takeFromBudget(itemBudget, fluidBudget, batch);
+				batches.add(batch);
+				batchOperations.add(multiplier);
+
+				overclock = calculateOverclock(nextRecipe);
+				totalEUt += (long) overclock[0] * multiplier;
+				longestDuration = Math.max(longestDuration, overclock[1]);
+				totalOperations += multiplier;
+				idleMachines -= multiplier;
 			}
-			return minMultiplier;
-		}
 
-		protected static Map<String, Integer> findAllFluidsInInputs(IMultipleTankHandler fluidInputs) {
+			if(batches.size() == 1)
+				return multipliedRecipe;
 
-			Map<String, Integer> countFluid = new HashMap<>();
-			for(IFluidTank tank : fluidInputs)
-				if(tank.getFluid() != null) {
+			Recipe combinedRecipe = combineRecipes(this.recipeMap, batches, batchOperations, baseRecipe);
+			if(combinedRecipe == null)
+				return multipliedRecipe;
 
-					String name = tank.getFluid().getUnlocalizedName();
+			this.numberOfOperations = totalOperations;
+			this.isPacked = true;
+			this.packedEUt = totalEUt;
+			this.packedDuration = longestDuration;
+			return combinedRecipe;
+		}
 
-					if(countFluid.containsKey(name)) {
-						int existingValue = countFluid.get(name);
-						countFluid.put(name, existingValue + tank.getFluidAmount());
-					} else
-						countFluid.put(name, tank.getFluidAmount());
+		/**
+		 * Merges the inputs and outputs of several multiplied recipes into one, recording how many operations each
+		 * chanced output stands for in {@link #packedChancedTrials}.
+		 * The EU/t and duration are taken from {@code baseRecipe}; {@link #setupRecipe} replaces them with the packed values.
+		 */
+		protected Recipe combineRecipes(RecipeMap<?> rmap, List<Recipe> batches, IntList batchOperations, Recipe baseRecipe) {
+			RecipeBuilder<?> combined = rmap.recipeBuilder();
+			IntList chancedTrials = new IntArrayList();
+			for(int i = 0; i < batches.size(); i++) {
+				Recipe batch = batches.get(i);
+				combined.inputsIngredients(batch.getInputs())
+				        .fluidInputs(batch.getFluidInputs())
+				        .outputs(batch.getOutputs())
+				        .fluidOutputs(batch.getFluidOutputs());
+				for(ChanceEntry entry : batch.getChancedOutputs()) {
+					combined.chancedOutput(entry.getItemStack().copy(), entry.getChance(), entry.getBoostPerTier());
+					chancedTrials.add(batchOperations.getInt(i));
 				}
-			return countFluid;
-		}
+			}
 
-		protected int getMinRatioFluid(Map<String, Integer> countFluid,
-		                               Recipe recipe,
-		                               int numberOfMachines) {
+			this.packedChancedTrials = chancedTrials.toIntArray();
 
-			int minMultiplier = Integer.MAX_VALUE;
-			for(FluidStack fs : recipe.getFluidInputs()) {
-				String name = fs.getFluid().getUnlocalizedName();
-				int ratio = Math.min(numberOfMachines, countFluid.get(name) / fs.amount);
+			return combined.EUt(baseRecipe.getEUt())
+			               .duration(baseRecipe.getDuration())
+			               .build()
+			               .getResult();
+		}
 
-				if(ratio < minMultiplier)
-					minMultiplier = ratio;
+		/**
+		 * Removes the inputs of a multiplied recipe from the item and fluid budgets.
+		 * Entries that run out are dropped, so they no longer match in later lookups.
+		 */
+		private static void takeFromBudget(Object2IntOpenCustomHashMap<ItemStack> itemBudget,
+		                                   Object2IntOpenHashMap<Fluid> fluidBudget,
+		                                   Recipe recipe) {
+			for(CountableIngredient input : recipe.getInputs()) {
+				int remaining = input.getCount();
+
+				ObjectIterator<Object2IntMap.Entry<ItemStack>> iter = itemBudget.object2IntEntrySet().fastIterator();
+				while(remaining > 0 && iter.hasNext()) {
+					Object2IntMap.Entry<ItemStack> entry = iter.next();
+					if(!input.getIngredient().apply(entry.getKey()))
+						continue;
+
+					int taken = Math.min(remaining, entry.getIntValue());
+					remaining -= taken;
+					if(taken == entry.getIntValue())
+						iter.remove();
+					else
+						entry.setValue(entry.getIntValue() - taken);
+				}
 			}
-			return minMultiplier;
-		}
 
-		protected static ItemStack copyItemStackWithCount(ItemStack itemStack, int count) {
-			ItemStack itemCopy = itemStack.copy();
-			itemCopy.setCount(count);
-			return itemCopy;
+			takeFluidsFromBudget(fluidBudget, recipe);
 		}
 
-		protected static FluidStack copyFluidStackWithAmount(FluidStack fluidStack, int count) {
-			FluidStack fluidCopy = fluidStack.copy();
-			fluidCopy.amount = count;
-			return fluidCopy;
+		private static void takeFluidsFromBudget(Object2IntOpenHashMap<Fluid> fluidBudget, Recipe recipe) {
+			for(FluidStack fs : recipe.getFluidInputs())
+				if(fluidBudget.addTo(fs.getFluid(), -fs.amount) - fs.amount <= 0)
+					fluidBudget.removeInt(fs.getFluid());
 		}
 
-		protected void multiplyInputsAndOutputs(List<CountableIngredient> newRecipeInputs,
-		                                        List<FluidStack> newFluidInputs,
-		                                        List<ItemStack> outputItems,
-		                                        List<FluidStack> outputFluids,
-		                                        Recipe recipe,
-		                                        int numberOfOperations) {
-
-			recipe.getInputs().forEach(ci ->
-				                           newRecipeInputs.add(new CountableIngredient(ci.getIngredient(),
-				                                                                       ci.getCount() * numberOfOperations)));
+		private static List<ItemStack> toItemList(Object2IntOpenCustomHashMap<ItemStack> itemBudget) {
+			List<ItemStack> items = new ArrayList<>(itemBudget.size());
+			ObjectIterator<Object2IntMap.Entry<ItemStack>> iter = itemBudget.object2IntEntrySet().fastIterator();
+			while(iter.hasNext()) {
+				Object2IntMap.Entry<ItemStack> entry = iter.next();
+				items.add(copyItemStackWithCount(entry.getKey(), entry.getIntValue()));
+			}
+			return items;
+		}
 
-			recipe.getFluidInputs().forEach(fluidStack ->
-				                                newFluidInputs.add(new FluidStack(fluidStack.getFluid(),
-				                                                                  fluidStack.amount * numberOfOperations)));
+		private static List<FluidStack> toFluidList(Object2IntOpenHashMap<Fluid> fluidBudget) {
+			List<FluidStack> fluids = new ArrayList<>(fluidBudget.size());
+			ObjectIterator<Object2IntMap.Entry<Fluid>> iter = fluidBudget.object2IntEntrySet().fastIterator();
+			while(iter.hasNext()) {
+				Object2IntMap.Entry<Fluid> entry = iter.next();
+				fluids.add(new FluidStack(entry.getKey(), entry.getIntValue()));
+			}
+			return fluids;
+		}
 
-			recipe.getOutputs().forEach(itemStack ->
-				                            outputItems.add(copyItemStackWithCount(itemStack,
-				                                                                   itemStack.getCount() * numberOfOperations)));
+		/**
+		 * Looks up the multiplied form of a recipe in the cache, building and caching it on a miss.
+		 *
+		 * @param rmap               the recipe map to build the multiplied recipe with
+		 * @param recipe             the base recipe
+		 * @param multiplier         the number of parallel operations
+		 * @param keepChancedOutputs whether the chanced outputs are carried over
+		 * @return the multiplied recipe
+		 */
+		protected Recipe getMultipliedRecipe(RecipeMap<?> rmap, Recipe recipe, int multiplier, boolean keepChancedOutputs) {
+			cacheLookupKey.set(recipe, multiplier, machineTier, keepChancedOutputs);
+			Recipe multiplied = multipliedRecipeCache.get(cacheLookupKey);
+			if(multiplied != null) {
+				recipeCacheHits++;
+				return multiplied;
+			}
 
-			recipe.getFluidOutputs().forEach(fluidStack ->
-				                                 outputFluids.add(copyFluidStackWithAmount(fluidStack,
-				                                                                           fluidStack.amount * numberOfOperations)));
+			recipeCacheMisses++;
+			multiplied = buildMultipliedRecipe(rmap, recipe, multiplier, keepChancedOutputs);
+			if(multiplied != null && GAConfig.processingArray.recipeCacheSize > 0)
+				multipliedRecipeCache.put(cacheLookupKey.copy(), multiplied);
+			return multiplied;
 		}
 
-		//Finds the Recipe Map of the passed Machine Stack and checks if it is a valid Recipe Map
-		public static RecipeMap<?> findRecipeMapAndCheckValid(ItemStack machineStack) {
+		protected static Recipe buildMultipliedRecipe(RecipeMap<?> rmap, Recipe recipe, int multiplier, boolean keepChancedOutputs) {
+			List<CountableIngredient> newRecipeInputs = new ArrayList<>();
+			List<FluidStack> newFluidInputs = new ArrayList<>();
+			List<ItemStack> outputI = new ArrayList<>();
+			List<FluidStack> outputF = new ArrayList<>();
+			multiplyInputsAndOutputs(newRecipeInputs,
+			                         newFluidInputs,
+			                         outputI,
+			                         outputF,
+			                         recipe,
+			                         multiplier);
 
-			if(machineStack == null || machineStack.isEmpty()) {
-				return null;
-			}
+			RecipeBuilder<?> newRecipe = rmap.recipeBuilder()
+			                                 .inputsIngredients(newRecipeInputs)
+			                                 .fluidInputs(newFluidInputs)
+			                                 .outputs(outputI)
+			                                 .fluidOutputs(outputF)
+			                                 .EUt(recipe.getEUt())
+			                                 .duration(recipe.getDuration());
 
-			String unlocalizedName = machineStack.getItem().getUnlocalizedNameInefficiently(machineStack);
-			String recipeMapName = findRecipeMapName(unlocalizedName);
+			if(keepChancedOutputs)
+				copyChancedItemOutputs(newRecipe, recipe, multiplier);
 
+			return newRecipe.build().getResult();
+		}
 
-			//Check the machine against the Config blacklist
-			if(!findMachineInBlacklist(recipeMapName)) {
+		/** @return the number of multiplied recipes served from the cache */
+		public long getRecipeCacheHits() {
+			return recipeCacheHits;
+		}
 
-				RecipeMap<?> rmap = RecipeMap.getByName(recipeMapName);
+		/** @return the number of multiplied recipes that had to be built */
+		public long getRecipeCacheMisses() {
+			return recipeCacheMisses;
+		}
 
-				if(rmap == null) {
-					return null;
-				}
+		protected List<IItemHandlerModifiable> getInputBuses() {
+			RecipeMapMultiblockController controller = (RecipeMapMultiblockController) metaTileEntity;
+			return controller.getAbilities(MultiblockAbility.IMPORT_ITEMS);
+		}
 
-				RecipeBuilder<?> rbuilder = rmap.recipeBuilder();
+		/**
+		 * @param itemCounts       the combined count of each distinct item available
+		 * @param recipe           the recipe to be multiplied
+		 * @param numberOfMachines the maximum multiplier
+		 * @return the number of times the item inputs of {@code recipe} can be satisfied, capped at
+		 *         {@code numberOfMachines}; 0 if any input, including a non-consumed one, is missing; or
+		 *         {@link Integer#MAX_VALUE} if the recipe has no item inputs.
+		 */
+		protected static int getMinRatioItem(Object2IntOpenCustomHashMap<ItemStack> itemCounts,
+		                                     Recipe recipe,
+		                                     int numberOfMachines) {
 
-				//Find the RecipeMap of the MTE and ensure that the Processing Array only works on SimpleRecipeBuilders
-				//For some reason GTCE has specialized recipe maps for some machines, when it does not need them
-				if (rbuilder instanceof SimpleRecipeBuilder ||
-					rbuilder instanceof IntCircuitRecipeBuilder ||
-					rbuilder instanceof ArcFurnaceRecipeBuilder ||
-					rbuilder instanceof CutterRecipeBuilder ||
-					rbuilder instanceof UniversalDistillationRecipeBuilder) {
+			int minMultiplier = Integer.MAX_VALUE;
+			for(CountableIngredient recipeInputs : recipe.getInputs()) {
+				boolean found = false;
+
+				ObjectIterator<Object2IntMap.Entry<ItemStack>> iter = itemCounts.object2IntEntrySet().fastIterator();
+				while(iter.hasNext()) {
+					Object2IntMap.Entry<ItemStack> entry = iter.next();
+
+					if(recipeInputs.getIngredient().apply(entry.getKey())) {
+						found = true;
+						// Non-consumed inputs, such as circuits and molds, only need to be present
+						if(recipeInputs.getCount() > 0) {
+							int ratio = Math.min(numberOfMachines, entry.getIntValue() / recipeInputs.getCount());
+							if(ratio < minMultiplier)
+								minMultiplier = ratio;
+						}
+						break;
+					}
 
-					return rmap;
 				}
+
+				if(!found)
+					return 0;
 			}
-			return null;
+			return minMultiplier;
 		}
 
-		protected static String findRecipeMapName(String unlocalizedName) {
-
-			String trimmedName = unlocalizedName.substring(0, unlocalizedName.lastIndexOf("."));
-			trimmedName = trimmedName.substring(trimmedName.lastIndexOf(".") + 1);
+		/**
+		 * @param fluidCounts      the combined amount of each distinct fluid available
+		 * @param recipe           the recipe to be multiplied
+		 * @param numberOfMachines the maximum multiplier
+		 * @return the number of times the fluid inputs of {@code recipe} can be satisfied, capped at
+		 *         {@code numberOfMachines}, or {@link Integer#MAX_VALUE} if the recipe has no fluid inputs.
+		 */
+		protected static int getMinRatioFluid(Object2IntOpenHashMap<Fluid> fluidCounts,
+		                                      Recipe recipe,
+		                                      int numberOfMachines) {
 
-			//Catch some cases where the machine's name is not the same as its recipe map's name
-			trimmedName = switch(trimmedName) {
-				case "cutter" -> "cutting_saw";
-				case "electric_furnace" -> "furnace";
-				case "ore_washer" -> "orewasher";
-				case "brewery" -> "brewer";
-				default -> trimmedName;
-			};
+			int minMultiplier = Integer.MAX_VALUE;
+			for(FluidStack fs : recipe.getFluidInputs()) {
+				int ratio = Math.min(numberOfMachines, fluidCounts.getInt(fs.getFluid()) / fs.amount);
 
-			return trimmedName;
+				if(ratio < minMultiplier)
+					minMultiplier = ratio;
+			}
+			return minMultiplier;
 		}
 
-		protected static boolean findMachineInBlacklist(String unlocalizedName) {
-
-			String[] blacklist = GAConfig.processingArray.machineBlackList;
-
-			return Arrays.asList(blacklist).contains(unlocalizedName);
+		//Finds the Recipe Map of the passed Machine Stack and checks if it is a valid Recipe Map
+		public static RecipeMap<?> findRecipeMapAndCheckValid(ItemStack machineStack) {
+			ProcessingArrayMachineRegistry.MachineEntry entry = ProcessingArrayMachineRegistry.getEligible(machineStack);
+			return entry == null ? null : entry.recipeMap;
 		}
 
 		@Override
@@ -647,21 +1143,35 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 		public void findMachineStack() {
 			RecipeMapMultiblockController controller = (RecipeMapMultiblockController) this.metaTileEntity;
 
-			//The Processing Array is limited to 1 Machine Interface per multiblock, and only has 1 slot
-			ItemStack currentMachine = controller.getAbilities(GACapabilities.PA_MACHINE_CONTAINER).get(0).getStackInSlot(0);
+			//Each lane reads its own Machine Interface, which only has 1 slot
+			List<IItemHandlerModifiable> holders = controller.getAbilities(GACapabilities.PA_MACHINE_CONTAINER);
+			ItemStack currentMachine = laneIndex < holders.size() ? holders.get(laneIndex).getStackInSlot(0) : ItemStack.EMPTY;
 
 			if (currentMachine.isEmpty()) {
+				unlockRecipe();
 				invalidate();
 				return;
 			}
 
 			if (!ItemStack.areItemStacksEqual(this.machineItemStack, currentMachine)) {
-				RecipeMap<?> rmap = findRecipeMapAndCheckValid(currentMachine);
+				// A locked recipe belongs to the machine it was found with; only the count may change
+				if(!ItemStack.areItemsEqual(this.lockedMachineStack, currentMachine))
+					unlockRecipe();
+
+				ProcessingArrayMachineRegistry.MachineEntry entry = getMachineEntry(currentMachine);
 
-				MetaTileEntity mte = MachineItemBlock.getMetaTileEntity(currentMachine);
+				// The machine was blacklisted after being inserted
+				if(entry == null) {
+					invalidate();
+					return;
+				}
+
+				// Whatever was running belongs to the other kind of machine
+				if(this.machineEntry != null && this.machineEntry.isGenerator() != entry.isGenerator())
+					invalidate();
 
 				//Find the voltage tier of the machine.
-				this.machineTier = mte instanceof ITieredMetaTileEntity tmte ? tmte.getTier() : 0;
+				this.machineTier = entry.tier;
 
 				this.machineVoltage = GTValues.V[this.machineTier];
 
@@ -670,10 +1180,11 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 
 				//we make a copy here to account for changes in the amount of machines in the hatch
 				this.machineItemStack = currentMachine.copy();
-				this.recipeMap = rmap;
+				this.machineEntry = entry;
+				this.recipeMap = entry.recipeMap;
 
 				// Send packet to client, so it knows what recipe map is loaded
-				writeCustomData(RECIPEMAP_CHANGED, buf -> buf.writeString(rmap.unlocalizedName));
+				writeCustomData(RECIPEMAP_CHANGED, buf -> buf.writeString(entry.recipeMap == null ? NONE : entry.recipeMap.unlocalizedName));
 			}
 		}
 
@@ -713,13 +1224,50 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 		 *         {@code false} if the recipe could not be configured and no work was done.
 		 */
 		protected boolean setupAndConsumeRecipeInputs(Recipe recipe, IItemHandlerModifiable importInventory) {
+			Object event = RecipeFlightEvents.SETUP.begin();
+			boolean consumed = canStartRecipe(recipe) && recipe.matches(true, importInventory, getInputTank());
+			RecipeFlightEvents.SETUP.commit(event, getRecipeMapName(), this.numberOfOperations, recipe.getDuration(),
+			                                consumed ? "consumed" : getIdleOutcome());
+			return consumed;
+		}
+
+		/**
+		 * @return the unlocalized name of the machines' recipe map, or {@code null} if there is none
+		 */
+		@Nullable
+		String getRecipeMapName() {
+			return recipeMap == null ? null : recipeMap.unlocalizedName;
+		}
+
+		/**
+		 * @return why the last attempt to start a recipe failed, for flight recorder events
+		 */
+		private String getIdleOutcome() {
+			if(isOutputsFull)
+				return "output_full";
+			if(energyWakeThreshold > 0)
+				return "no_energy";
+			return "no_recipe";
+		}
+
+		/**
+		 * Checks everything needed to start a recipe other than its inputs.
+		 *
+		 * @param recipe the recipe to prepare to run
+		 * @return {@code true} if there's enough energy and room for the outputs, {@code false} otherwise.
+		 */
+		protected boolean canStartRecipe(Recipe recipe) {
 			IItemHandlerModifiable exportInventory = getOutputInventory();
-			IMultipleTankHandler importFluids = getInputTank();
 			IMultipleTankHandler exportFluids = getOutputTank();
 
 			// Check if there's enough energy to even start this recipe
-			if(!haveEnoughPowerToProceed(recipe, machineVoltage, this.numberOfOperations))
+			boolean enoughPower = isPacked ?
+				haveEnoughPowerToProceed(packedEUt, packedDuration) :
+				haveEnoughPowerToProceed(recipe, machineVoltage, this.numberOfOperations);
+			if(!enoughPower) {
+				energyWakeThreshold = getEnergyNeededToStart(recipe);
 				return false;
+			}
 
 			// Ensure there's enough room for items, otherwise mark outputs read and bail out
 			if(!MetaTileEntity.addItemsToItemHandler(exportInventory, true, recipe.getAllItemOutputs(Integer.MAX_VALUE))) {
@@ -734,7 +1282,7 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 			}
 
 			this.isOutputsFull = false;
-			return recipe.matches(true, importInventory, importFluids);
+			return true;
 		}
 
 		/**
@@ -749,189 +1297,526 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 		protected boolean haveEnoughPowerToProceed(Recipe recipe, long voltageTier, int numOperations) {
 			//Format: EU/t, duration
 			int[] resultOverclock = calculateOverclock(recipe, voltageTier);
-			int totalEU = resultOverclock[0] * resultOverclock[1] * numOperations;
-			int EUt = resultOverclock[0] * numOperations;
-
-			boolean enoughPower;
-			if(totalEU >= 0) {
-				int capacity;
-				if(totalEU > getEnergyCapacity() / 2)
-					capacity = EUt;
-				else
-					capacity = totalEU;
-				enoughPower = getEnergyStored() >= capacity;
-			} else {
-				int power = EUt * numOperations;
-				enoughPower = getEnergyStored() - (long) power <= getEnergyCapacity();
-			}
-
-			return enoughPower;
-		}
+			int batchFactor = getBatchFactor(numOperations);
+			long EUt = ceilDiv((long) resultOverclock[0] * numOperations, batchFactor);
 
-		private boolean useDistinctLogic() {
-			return metaTileEntity instanceof TileEntityProcessingArray tepa &&
-				   tepa.isDistinctInputBusMode &&
-				   getInputInventory().getSlots() > 0;
-		}
+			if(EUt >= 0)
+				return haveEnoughPowerToProceed(EUt, resultOverclock[1] * batchFactor);
 
-		@Override
-		protected boolean canWorkWithInputs() {
-			return useDistinctLogic() ? canWorkWithDistinctInputs() : super.canWorkWithInputs();
+			long power = EUt * numOperations;
+			return getEnergyStored() - power <= getEnergyCapacity();
 		}
 
 		/**
-		 * Determines if any input buses have changed since the last distinct mode recipe check.
-		 * All such buses are marked valid and the change notification cleared.
+		 * Determines if there is sufficient energy buffer to start a cycle drawing a given total EU/t.
+		 * Runs that need more than half the buffer only need enough stored for their first tick.
+		 *
+		 * @param EUt      the total EU/t of the cycle
+		 * @param duration the duration of the cycle in ticks
+		 * @return {@code true} if there is enough energy to proceed, {@code false} otherwise.
+		 */
+		protected boolean haveEnoughPowerToProceed(long EUt, int duration) {
+			return hasEnoughEnergyToStart(EUt, duration, getEnergyStored(), getEnergyCapacity());
+		}
+
+		/**
+		 * @param EUt            the total EU/t of the cycle
+		 * @param duration       the duration of the cycle in ticks
+		 * @param energyStored   the energy in the buffer
+		 * @param energyCapacity the size of the buffer
+		 * @return {@code true} if a buffer in this state can start the cycle
+		 * @see #haveEnoughPowerToProceed(long, int)
+		 */
+		protected static boolean hasEnoughEnergyToStart(long EUt, int duration, long energyStored, long energyCapacity) {
+			long totalEU = EUt * duration;
+			long required = totalEU > energyCapacity / 2 ? EUt : totalEU;
+			return energyStored >= required;
+		}
+
+		/**
+		 * @param recipe the recipe that could not be started
+		 * @return the stored energy that would let the smallest possible batch of {@code recipe} start
+		 */
+		private long getEnergyNeededToStart(Recipe recipe) {
+			long EUt;
+			int duration;
+			if(isPacked) {
+				EUt = packedEUt;
+				duration = packedDuration;
+			} else {
+				//Format: EU/t, duration
+				int[] overclock = calculateOverclock(recipe, machineVoltage);
+				EUt = overclock[0];
+				duration = overclock[1];
+			}
+
+			long totalEU = EUt * duration;
+			return Math.max(1L, totalEU > getEnergyCapacity() / 2 ? EUt : totalEU);
+		}
+
+		/**
+		 * Shrinks a multiplied recipe to the largest batch that the energy buffer and the free output space allow,
+		 * so that a full-sized batch that doesn't fit still gets part of the work started.
+		 *
+		 * @param baseRecipe       the recipe before multiplication
+		 * @param multipliedRecipe {@code baseRecipe} multiplied to {@link #numberOfOperations}
+		 * @return the recipe to run; {@code multipliedRecipe} itself if the full batch fits, or if not even one
+		 *         operation does, so that the usual checks report why.
+		 */
+		protected Recipe fitBatchSize(Recipe baseRecipe, Recipe multipliedRecipe) {
+			// Packed cycles are sized as a whole while packing
+			if(isPacked || this.numberOfOperations <= 1)
+				return multipliedRecipe;
+
+			//Format: EU/t, duration
+			int[] overclock = calculateOverclock(baseRecipe);
+			int parallels = getMaxParallelsForEnergy(overclock[0], overclock[1], this.numberOfOperations);
+			boolean keepChancedOutputs = keepChancedOutputs();
+			parallels = getMaxParallelsForOutputs(baseRecipe, parallels, keepChancedOutputs);
+
+			if(parallels <= 0 || parallels == this.numberOfOperations)
+				return multipliedRecipe;
+
+			Recipe reducedRecipe = getMultipliedRecipe(this.recipeMap, baseRecipe, parallels, keepChancedOutputs);
+			if(reducedRecipe == null)
+				return multipliedRecipe;
+
+			this.numberOfOperations = parallels;
+			return reducedRecipe;
+		}
+
+		/**
+		 * @param EUt          the overclocked EU/t of a single operation
+		 * @param duration     the overclocked duration of a single operation
+		 * @param maxParallels the most operations wanted
+		 * @return the most operations, up to {@code maxParallels}, that
+		 *         {@link #haveEnoughPowerToProceed(long, int)} would allow to start.
+		 */
+		protected int getMaxParallelsForEnergy(long EUt, int duration, int maxParallels) {
+			if(EUt <= 0 || duration <= 0)
+				return maxParallels;
+
+			long stored = getEnergyStored();
+			long euPerOperation = EUt * duration;
+
+			// Batches up to this size need their full energy stored up front...
+			long smallBatchLimit = (getEnergyCapacity() / 2) / euPerOperation;
+			long parallels = Math.min(Math.min(smallBatchLimit, maxParallels), stored / euPerOperation);
+
+			// ...while larger ones only need their first tick's worth, if the batch wanted is large at all
+			long largeBatchParallels = Math.min(maxParallels, stored / EUt);
+			if(largeBatchParallels > smallBatchLimit)
+				parallels = largeBatchParallels;
+
+			return (int) parallels;
+		}
+
+		/**
+		 * @param baseRecipe         the recipe before multiplication
+		 * @param maxParallels       the most operations wanted
+		 * @param keepChancedOutputs whether the chanced outputs would be produced
+		 * @return the most operations, up to {@code maxParallels}, whose outputs fit the output hatches and buses.
+		 */
+		protected int getMaxParallelsForOutputs(Recipe baseRecipe, int maxParallels, boolean keepChancedOutputs) {
+			// The common case is that everything fits
+			if(maxParallels <= 0 || outputsFit(baseRecipe, maxParallels, keepChancedOutputs))
+				return maxParallels;
+
+			// Fitting is monotonic in the batch size, so binary search for the largest that fits
+			int low = 0;
+			int high = maxParallels - 1;
+			while(low < high) {
+				int mid = (low + high + 1) / 2;
+				if(outputsFit(baseRecipe, mid, keepChancedOutputs))
+					low = mid;
+				else
+					high = mid - 1;
+			}
+			return low;
+		}
+
+		private boolean outputsFit(Recipe baseRecipe, int parallels, boolean keepChancedOutputs) {
+			List<ItemStack> itemOutputs = new ArrayList<>();
+			for(ItemStack stack : baseRecipe.getOutputs())
+				itemOutputs.add(copyItemStackWithCount(stack, stack.getCount() * parallels));
+			if(keepChancedOutputs)
+				for(ChanceEntry entry : baseRecipe.getChancedOutputs())
+					itemOutputs.add(copyItemStackWithCount(entry.getItemStack(), entry.getItemStack().getCount() * parallels));
+
+			if(!MetaTileEntity.addItemsToItemHandler(getOutputInventory(), true, itemOutputs))
+				return false;
+
+			List<FluidStack> fluidOutputs = new ArrayList<>();
+			for(FluidStack stack : baseRecipe.getFluidOutputs())
+				fluidOutputs.add(copyFluidStackWithAmount(stack, stack.amount * parallels));
+
+			return MetaTileEntity.addFluidsToFluidHandler(getOutputTank(), true, fluidOutputs);
+		}
+
+		private boolean useDistinctLogic() {
+			return metaTileEntity instanceof TileEntityProcessingArray tepa &&
+				   tepa.isDistinctInputBusMode &&
+				   getInputInventory().getSlots() > 0;
+		}
+
+		/**
+		 * Records input changes reported to the controller, to be looked at on this lane's next search.
+		 */
+		void addInputChanges(List<? extends IItemHandler> notifiedItems, boolean fluidsChanged) {
+			changedItemInputs.addAll(notifiedItems);
+			fluidInputsChanged |= fluidsChanged;
+		}
+
+		boolean hasInputChanges() {
+			return fluidInputsChanged || !changedItemInputs.isEmpty();
+		}
+
+		private void clearInputChanges() {
+			changedItemInputs.clear();
+			fluidInputsChanged = false;
+		}
+
+		@Override
+		protected boolean canWorkWithInputs() {
+			if(useDistinctLogic())
+				return canWorkWithDistinctInputs();
+
+			// if the inputs were bad last time, wait for them to change before trying to find a new recipe
+			if(invalidInputsForRecipes && !hasInputChanges())
+				return false;
+
+			invalidInputsForRecipes = false;
+			clearInputChanges();
+			return true;
+		}
+
+		@Override
+		protected boolean canFitNewOutputs() {
+			// if the outputs were full last time, wait for them to change before trying again
+			if(isOutputsFull && !outputsChanged)
+				return false;
+
+			isOutputsFull = false;
+			outputsChanged = false;
+			return true;
+		}
+
+		/**
+		 * Maps every bus, and every handler backing one, to the bus's index. Only done after the buses may have
+		 * changed, i.e. after the structure was reformed.
+		 */
+		private void updateBusIndices() {
+			if(!busIndicesStale)
+				return;
+
+			busIndices.clear();
+			busIndices.defaultReturnValue(-1);
+			clearInvalidatedBuses();
+
+			List<IItemHandlerModifiable> buses = getInputBuses();
+			for(int i = 0; i < buses.size(); i++) {
+				IItemHandlerModifiable bus = buses.get(i);
+				busIndices.put(bus, i);
+				if(bus instanceof ItemHandlerList ihl)
+					for(IItemHandler backingHandler : ihl.getBackingHandlers())
+						busIndices.put(backingHandler, i);
+			}
+
+			busIndicesStale = false;
+		}
+
+		/**
+		 * Determines if any input buses have changed since the last distinct mode recipe check.
+		 * All such buses are marked valid.
 		 *
 		 * @return {@code true} if any buses were validated during this check.
 		 */
 		private boolean validateChangedInputBuses() {
 			boolean anyValidated = false;
 
-			// Iterate over all input buses that have reported a change
-			Iterator<IItemHandlerModifiable> notifiedIter = metaTileEntity.getNotifiedItemInputList().iterator();
-			while (notifiedIter.hasNext()) {
-				IItemHandlerModifiable bus = notifiedIter.next();
-
-				// Find and validate this bus, if it is currently listed as invalid
-				Iterator<IItemHandlerModifiable> invalidatedIter = invalidatedInputList.iterator();
-				while (invalidatedIter.hasNext()) {
-					IItemHandler invalidatedHandler = invalidatedIter.next();
-
-					// recurse into handler lists; we need the specific handler
-					if (invalidatedHandler instanceof ItemHandlerList ihl) {
-						for (IItemHandler ih : ihl.getBackingHandlers()) {
-							if (ih == bus) {
-								anyValidated = true;
-								invalidatedIter.remove();
-								break;
-							}
-						}
-					} else if (invalidatedHandler == bus) {
-						anyValidated = true;
-						invalidatedIter.remove();
-					}
+			// Only the buses that reported a change are looked at
+			for(IItemHandler notified : changedItemInputs) {
+				int busIndex = busIndices.getInt(notified);
+				if(busIndex >= 0 && invalidatedBuses.get(busIndex)) {
+					invalidatedBuses.clear(busIndex);
+					busFluidDependencies.remove(busIndex);
+					anyValidated = true;
 				}
-				notifiedIter.remove();
 			}
 
 			return anyValidated;
 		}
 
 		/**
-		 * Handles the logic for determining whether work can be done in distinct mode
+		 * Marks a bus invalid, recording which fluids could make a recipe appear on it.
 		 */
-		protected boolean canWorkWithDistinctInputs() {
-			// if we haven't marked any buses invalid, proceed
-			if (invalidatedInputList.isEmpty())
-				return true;
+		private void invalidateBus(int busIndex, IItemHandler bus) {
+			invalidatedBuses.set(busIndex);
+			busFluidDependencies.put(busIndex, findFluidDependencies(bus));
+		}
 
-			// If a fluid input changed, clear notifications/invalidations and proceed from scratch.
-			if (!metaTileEntity.getNotifiedFluidInputList().isEmpty()) {
-				invalidatedInputList.clear();
-				metaTileEntity.getNotifiedFluidInputList().clear();
-				metaTileEntity.getNotifiedItemInputList().clear();
-				return true;
+		private void clearInvalidatedBuses() {
+			invalidatedBuses.clear();
+			busFluidDependencies.clear();
+		}
+
+		/**
+		 * @param bus a bus on which no recipe was found
+		 * @return the fluids used by recipes taking any of the items on {@code bus}, looked up from the recipe map's
+		 *         precomputed {@link ProcessingArrayMachineRegistry.FluidDependencies}. While locked, only the locked
+		 *         recipe is considered, and only if all its item inputs are present.
+		 */
+		private Set<Fluid> findFluidDependencies(IItemHandler bus) {
+			Set<Fluid> fluids = new ReferenceOpenHashSet<>();
+			if(this.recipeMap == null)
+				return fluids;
+
+			inputIndex.markChanged(metaTileEntity.getNotifiedItemInputList(), metaTileEntity.getNotifiedFluidInputList());
+			inputIndex.update(getInputBuses(), getInputTank());
+			Object2IntOpenCustomHashMap<ItemStack> itemCounts = inputIndex.getItemCounts(bus);
+
+			if(isLockedToRecipe()) {
+				if(hasAllItemInputs(itemCounts, lockedRecipe))
+					for(FluidStack fs : lockedRecipe.getFluidInputs())
+						fluids.add(fs.getFluid());
+				return fluids;
 			}
 
-			// If any of the invalid buses changed since last check, proceed.
-			if(validateChangedInputBuses())
-				return true;
+			ProcessingArrayMachineRegistry.getFluidDependencies(this.recipeMap).collect(itemCounts.keySet(), fluids);
+			return fluids;
+		}
 
-			// If we're here, no inputs have changed since the last check but at least one is invalid.
-			// Proceed if at least one item handler hasn't been marked invalid.
+		/**
+		 * @return {@code true} if at least one operation's worth of each item input of {@code recipe}, including
+		 *         non-consumed ones, is present in {@code itemCounts}.
+		 */
+		private static boolean hasAllItemInputs(Object2IntOpenCustomHashMap<ItemStack> itemCounts, Recipe recipe) {
+			for(CountableIngredient input : recipe.getInputs()) {
+				int needed = Math.max(1, input.getCount());
+				boolean found = false;
+
+				ObjectIterator<Object2IntMap.Entry<ItemStack>> iter = itemCounts.object2IntEntrySet().fastIterator();
+				while(!found && iter.hasNext()) {
+					Object2IntMap.Entry<ItemStack> entry = iter.next();
+					found = entry.getIntValue() >= needed && input.getIngredient().apply(entry.getKey());
+				}
 
-			// Collect all item handlers
-			ArrayList<IItemHandlerModifiable> flattenedHandlers = new ArrayList<>();
-			for(IItemHandler ih : getInputBuses()) {
-				if (ih instanceof ItemHandlerList ihl) {
-					for(IItemHandler backingHandler : ihl.getBackingHandlers())
-						if(backingHandler instanceof IItemHandlerModifiable bhm)
-							flattenedHandlers.add(bhm);
+				if(!found)
+					return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Re-validates the invalidated buses that depend on a fluid whose amount changed since the last check.
+		 *
+		 * @return {@code true} if any buses were validated during this check.
+		 */
+		private boolean validateBusesForChangedFluids() {
+			inputIndex.markChanged(metaTileEntity.getNotifiedItemInputList(), metaTileEntity.getNotifiedFluidInputList());
+			inputIndex.update(getInputBuses(), getInputTank());
+
+			long since = lastFluidCheck;
+			lastFluidCheck = inputIndex.getFluidModCount();
+			if(lastFluidCheck == since)
+				return false;
+
+			boolean anyValidated = false;
+			for(int i = invalidatedBuses.nextSetBit(0); i >= 0; i = invalidatedBuses.nextSetBit(i + 1)) {
+				Set<Fluid> dependencies = busFluidDependencies.get(i);
+
+				boolean affected = dependencies == null;
+				if(!affected)
+					for(Fluid fluid : dependencies)
+						if(inputIndex.getFluidLastChanged(fluid) > since) {
+							affected = true;
+							break;
+						}
+
+				if(affected) {
+					invalidatedBuses.clear(i);
+					busFluidDependencies.remove(i);
+					anyValidated = true;
 				}
-				if (ih instanceof IItemHandlerModifiable ihl)
-					flattenedHandlers.add(ihl);
 			}
 
-			return (!invalidatedInputList.containsAll(flattenedHandlers));
+			return anyValidated;
+		}
+
+		/**
+		 * Handles the logic for determining whether work can be done in distinct mode
+		 */
+		protected boolean canWorkWithDistinctInputs() {
+			updateBusIndices();
+
+			// Re-validate every bus a change could make a recipe appear on, before the changes are dropped.
+			// A fluid change only re-validates the buses whose recipes need that fluid.
+			boolean anyValidated = fluidInputsChanged && validateBusesForChangedFluids();
+			anyValidated |= validateChangedInputBuses();
+			clearInputChanges();
+
+			// if we haven't marked any buses invalid, or any of them changed since the last check, proceed
+			if (invalidatedBuses.isEmpty() || anyValidated)
+				return true;
+
+			// If we're here, no inputs have changed since the last check but at least one is invalid.
+			// Proceed if at least one bus hasn't been marked invalid.
+			return invalidatedBuses.nextClearBit(0) < getInputBuses().size();
 		}
 
 		@Override
 		protected void trySearchNewRecipe() {
+			long searchStart = stats.startSearch();
+			Object event = RecipeFlightEvents.SEARCH.begin();
+			isPacked = false;
+			energyWakeThreshold = 0L;
 			if(useDistinctLogic()) {
 				trySearchNewRecipeDistinct();
 			} else {
 				trySearchNewRecipeCombined();
 			}
+			RecipeFlightEvents.SEARCH.commit(event, getRecipeMapName(),
+			                                 progressTime > 0 ? this.numberOfOperations : 0,
+			                                 maxProgressTime,
+			                                 progressTime > 0 ? "started" : getIdleOutcome());
+			stats.endSearch(searchStart);
 		}
 
 		private void trySearchNewRecipeCombined() {
-			long maxVoltage = getMaxVoltage();
-			Recipe currentRecipe = null;
+			Recipe currentRecipe = findCombinedRecipe();
+
+			this.invalidInputsForRecipes = (currentRecipe == null);
+
+			// proceed if we have a usable recipe.
+			if (currentRecipe != null) {
+				Recipe multipliedRecipe = prepareCombinedBatch(currentRecipe);
+
+				// The locked recipe is not matched against the inputs beforehand, so this is where it turns out invalid
+				if(multipliedRecipe == null && isLockedToRecipe())
+					this.invalidInputsForRecipes = true;
+
+				// Start whatever part of the batch the energy buffer and output space allow
+				if(multipliedRecipe != null)
+					multipliedRecipe = fitBatchSize(currentRecipe, multipliedRecipe);
+
+				//Attempts to run the current recipe, if it is not null
+				if (multipliedRecipe != null && setupAndConsumeRecipeInputs(multipliedRecipe))
+					setupRecipe(multipliedRecipe);
+			}
+		}
+
+		/**
+		 * Finds a recipe for the combined inputs, trying the previous recipe first.
+		 *
+		 * @return the base recipe found, which is also cached as the previous recipe, or {@code null} if none matches.
+		 */
+		private Recipe findCombinedRecipe() {
+			Recipe currentRecipe;
 			IItemHandlerModifiable importInventory = getInputInventory();
 			IMultipleTankHandler importFluids = getInputTank();
 
-			// see if the last recipe we used still works
-			if (this.previousRecipe != null &&
+			// see if the last recipe we used still works; a locked recipe is only checked against the input counts
+			if (!isLockedToRecipe() &&
+				this.previousRecipe != null &&
 				this.previousRecipe.matches(false, importInventory, importFluids))
 				currentRecipe = this.previousRecipe;
 				// If there is no active recipe, then we need to find one.
 			else
-				currentRecipe = findRecipe(maxVoltage, importInventory, importFluids);
+				currentRecipe = findRecipeOrLocked(getMaxVoltage(), importInventory, importFluids);
 
 			// If a recipe was found, then inputs were valid. Cache found recipe.
 			if (currentRecipe != null)
 				this.previousRecipe = currentRecipe;
 
-			this.invalidInputsForRecipes = (currentRecipe == null);
+			return currentRecipe;
+		}
 
-			// proceed if we have a usable recipe.
-			if (currentRecipe != null) {
-				Recipe multipliedRecipe = multiplyRecipe(importInventory, importFluids, currentRecipe, machineItemStack, recipeMap);
+		/**
+		 * Multiplies a recipe found in the combined inputs, packing other recipes alongside it if enabled.
+		 *
+		 * @return the batch to run, or {@code null} if the inputs no longer cover a single operation
+		 */
+		private Recipe prepareCombinedBatch(Recipe currentRecipe) {
+			Recipe multipliedRecipe = multiplyRecipe(getInputInventory(), getInputTank(), currentRecipe, machineItemStack, recipeMap);
 
-				//Attempts to run the current recipe, if it is not null
-				if (multipliedRecipe != null && setupAndConsumeRecipeInputs(multipliedRecipe))
-					setupRecipe(multipliedRecipe);
-			}
+			// Put any machines the first recipe could not use to work on other recipes. Packing looks up recipes,
+			// which a locked lane never does.
+			if(multipliedRecipe != null && isPackingMode && !isRecipeLocked)
+				multipliedRecipe = packRecipes(currentRecipe, multipliedRecipe);
+
+			return multipliedRecipe;
+		}
+
+		// ------------------------------- Recipe Lock -----------------------------------------------------------
 
-			// Inputs have been inspected.
-			metaTileEntity.getNotifiedItemInputList().clear();
-			metaTileEntity.getNotifiedFluidInputList().clear();
+		/** @return {@code true} if the lock is on and this lane has a recipe to stick to */
+		private boolean isLockedToRecipe() {
+			return isRecipeLocked && lockedRecipe != null;
+		}
+
+		private void lockRecipe(Recipe recipe) {
+			lockedRecipe = recipe;
+			lockedMachineStack = machineItemStack.copy();
+		}
+
+		private void unlockRecipe() {
+			lockedRecipe = null;
+			lockedMachineStack = ItemStack.EMPTY;
+		}
+
+		/** Locks the lane to the recipe it last used, or releases it, following the controller's toggle */
+		void onRecipeLockToggled() {
+			if(isRecipeLocked && previousRecipe != null)
+				lockRecipe(previousRecipe);
+			else
+				unlockRecipe();
+		}
+
+		/**
+		 * Finds a recipe for the given inputs. While locked, no lookup happens at all: the locked recipe is returned
+		 * if the voltage still allows it, and whether the inputs cover it is left to the input counts in
+		 * {@link #multiplyRecipe}. Otherwise, a recipe found while the lock is on becomes the locked one.
+		 */
+		private Recipe findRecipeOrLocked(long maxVoltage, IItemHandlerModifiable inputs, IMultipleTankHandler fluidInputs) {
+			if(isLockedToRecipe())
+				return lockedRecipe.getEUt() <= Math.min(this.machineVoltage, maxVoltage) ? lockedRecipe : null;
+
+			Recipe recipe = findRecipe(maxVoltage, inputs, fluidInputs);
+			if(isRecipeLocked && recipe != null)
+				lockRecipe(recipe);
+			return recipe;
 		}
 
 		private void trySearchNewRecipeDistinct() {
 			long maxVoltage = getMaxVoltage();
-			Recipe currentRecipe = null;
+			Recipe currentRecipe;
 			List<IItemHandlerModifiable> importInventory = getInputBuses();
 			IMultipleTankHandler importFluids = getInputTank();
 
-			// Can we reuse the cached recipe?
-			if (previousRecipe != null &&
-				previousRecipe.matches(false, importInventory.get(lastRecipeIndex), importFluids)) {
-
-				currentRecipe = previousRecipe;
-				Recipe multipliedRecipe = multiplyRecipe(importInventory.get(lastRecipeIndex), importFluids, currentRecipe, machineItemStack, recipeMap);
-				if(setupAndConsumeRecipeInputs(multipliedRecipe, lastRecipeIndex)) {
-					setupRecipe(multipliedRecipe);
-				}
-				//if the recipe matches return true we HAVE enough of the input to proceed, but are not proceeding due to either lack of energy or output space.
-				return;
-			}
-
-			//If the previous recipe is null, check for a new recipe
-			for(int i = 0; i < importInventory.size(); i++) {
+			// Every bus gets its turn, starting after the bus that got the last one
+			updateBusIndices();
+			int busCount = importInventory.size();
+			for(int n = 0; n < busCount; n++) {
+				int i = (searchCursor + n) % busCount;
 				IItemHandlerModifiable bus = importInventory.get(i);
 
 				// skip this bus if nothing's changed since last check
-				if (invalidatedInputList.contains(bus))
+				if (invalidatedBuses.get(i))
 					continue;
 
-				// see if another recipe can be run
-				currentRecipe = findRecipe(maxVoltage, bus, importFluids);
+				// Reuse the cached recipe on the bus it was found on; a locked recipe is looked up instead, to avoid matching
+				if(i == lastRecipeIndex &&
+				   !isLockedToRecipe() &&
+				   previousRecipe != null &&
+				   previousRecipe.matches(false, bus, importFluids))
+					currentRecipe = previousRecipe;
+				else
+					// see if another recipe can be run
+					currentRecipe = findRecipeOrLocked(maxVoltage, bus, importFluids);
 
 				// if no valid recipe was found, mark this bus invalid and try the next one.
 				if(currentRecipe == null) {
-					invalidatedInputList.add(bus);
+					invalidateBus(i, bus);
 					continue;
 				}
 
@@ -940,24 +1825,259 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 
 				// Scale the recipe
 				Recipe multipliedRecipe = multiplyRecipe(bus, importFluids, currentRecipe, machineItemStack, recipeMap);
+				if(multipliedRecipe != null)
+					multipliedRecipe = fitBatchSize(currentRecipe, multipliedRecipe);
+				else if(isLockedToRecipe()) {
+					// this bus doesn't hold enough for the locked recipe
+					invalidateBus(i, bus);
+					continue;
+				}
+
+				// Put machines this bus can't use to work on the other buses' recipes in the same cycle
+				if(multipliedRecipe != null && isPackingMode && tryStartWithOtherBuses(i, currentRecipe, multipliedRecipe)) {
+					lastRecipeIndex = i;
+					searchCursor = (i + 1) % busCount;
+					return;
+				}
 
 				// Got a usable multiplied recipe, proceed with that.
 				if(multipliedRecipe != null && setupAndConsumeRecipeInputs(multipliedRecipe, i)) {
 					setupRecipe(multipliedRecipe);
 					lastRecipeIndex = i;
+					searchCursor = (i + 1) % busCount;
 					return; // success, stop here.
 				}
 			}
 		}
 
+		/**
+		 * Fills the machines that the first bus's batch leaves idle with batches from the other buses, each sized
+		 * from its own bus's items and whatever fluid the earlier batches left. Every batch runs in the same cycle,
+		 * the same way a packed recipe does.
+		 *
+		 * @param firstBus        the index of the bus the first batch comes from
+		 * @param firstBase       the first bus's recipe
+		 * @param firstMultiplied {@code firstBase} multiplied to {@link #numberOfOperations}
+		 * @return {@code true} if a cycle spanning several buses was started, otherwise {@code false} with the first
+		 *         bus's batch left to be started on its own.
+		 */
+		private boolean tryStartWithOtherBuses(int firstBus, Recipe firstBase, Recipe firstMultiplied) {
+			int idleMachines = this.numberOfMachines - this.numberOfOperations;
+			if(idleMachines <= 0)
+				return false;
+
+			List<IItemHandlerModifiable> buses = getInputBuses();
+			IMultipleTankHandler importFluids = getInputTank();
+			long maxVoltage = getMaxVoltage();
+			boolean keepChancedOutputs = keepChancedOutputs();
+
+			// Buses don't share items, but they all draw on the same fluids
+			Object2IntOpenHashMap<Fluid> fluidBudget = new Object2IntOpenHashMap<>(inputIndex.getFluidCounts());
+			takeFluidsFromBudget(fluidBudget, firstMultiplied);
+
+			//Format: EU/t, duration
+			int[] overclock = calculateOverclock(firstBase);
+			long totalEUt = (long) overclock[0] * this.numberOfOperations;
+			int longestDuration = overclock[1];
+			int totalOperations = this.numberOfOperations;
+
+			List<Recipe> batches = new ArrayList<>();
+			IntList batchBuses = new IntArrayList();
+			IntList batchOperations = new IntArrayList();
+			batches.add(firstMultiplied);
+			batchBuses.add(firstBus);
+			batchOperations.add(this.numberOfOperations);
+
+			for(int n = 1; n < buses.size() && idleMachines > 0; n++) {
+				int busIndex = (firstBus + n) % buses.size();
+				if(invalidatedBuses.get(busIndex))
+					continue;
+
+				IItemHandlerModifiable bus = buses.get(busIndex);
+				Recipe recipe = findRecipeOrLocked(maxVoltage, bus, importFluids);
+				if(recipe == null) {
+					invalidateBus(busIndex, bus);
+					continue;
+				}
+
+				int multiplier = Math.min(getMinRatioItem(inputIndex.getItemCounts(bus), recipe, idleMachines),
+				                          getMinRatioFluid(fluidBudget, recipe, idleMachines));
+				if(multiplier <= 0 || multiplier == Integer.MAX_VALUE)
+					continue;
+
+				Recipe batch = getMultipliedRecipe(this.recipeMap, recipe, multiplier, keepChancedOutputs);
+				if(batch == null)
+					continue;
+
+				takeFluidsFromBudget(fluidBudget, batch);
+				batches.add(batch);
+				batchBuses.add(busIndex);
+				batchOperations.add(multiplier);
+
+				overclock = calculateOverclock(recipe);
+				totalEUt += (long) overclock[0] * multiplier;
+				longestDuration = Math.max(longestDuration, overclock[1]);
+				totalOperations += multiplier;
+				idleMachines -= multiplier;
+			}
+
+			if(batches.size() == 1)
+				return false;
+
+			Recipe combinedRecipe = combineRecipes(this.recipeMap, batches, batchOperations, firstBase);
+			if(combinedRecipe == null)
+				return false;
+
+			int firstOperations = this.numberOfOperations;
+			this.numberOfOperations = totalOperations;
+			this.isPacked = true;
+			this.packedEUt = totalEUt;
+			this.packedDuration = longestDuration;
+
+			if(canStartRecipe(combinedRecipe) && consumeFromBuses(batches, batchBuses)) {
+				setupRecipe(combinedRecipe);
+				return true;
+			}
+
+			this.numberOfOperations = firstOperations;
+			this.isPacked = false;
+			return false;
+		}
+
+		/**
+		 * Consumes each batch's inputs from its own bus, but only once every batch has been checked to match.
+		 */
+		private boolean consumeFromBuses(List<Recipe> batches, IntList batchBuses) {
+			List<IItemHandlerModifiable> buses = getInputBuses();
+			IMultipleTankHandler importFluids = getInputTank();
+
+			for(int k = 0; k < batches.size(); k++)
+				if(!batches.get(k).matches(false, buses.get(batchBuses.getInt(k)), importFluids))
+					return false;
+
+			for(int k = 0; k < batches.size(); k++)
+				batches.get(k).matches(true, buses.get(batchBuses.getInt(k)), importFluids);
+
+			return true;
+		}
+
 		// ------------------------------- End Distinct Bus Logic ------------------------------------------------
 
 
+		// ------------------------------- Generator Logic ------------------------------------------------
+
+		/**
+		 * @return {@code true} if the machines in the holder are generators, which burn fuel instead of running recipes
+		 */
+		boolean isGeneratorLane() {
+			return machineEntry != null && machineEntry.isGenerator();
+		}
+
+		@Override
+		public void updateWorkable() {
+			if(isGeneratorLane())
+				updateGenerator();
+			else
+				super.updateWorkable();
+		}
+
+		/**
+		 * Burns fuel for all generators in the holder at once, the way each of them would on its own, and outputs
+		 * their combined energy through the dynamo hatches.
+		 */
+		private void updateGenerator() {
+			if(!isWorkingEnabled())
+				return;
+
+			if(fuelDurationLeft > 0) {
+				// Like a single generator, wait for room rather than voiding the energy
+				if(outputEnergyContainer.getEnergyCanBeInserted() >= fuelOutputEUt) {
+					outputEnergyContainer.addEnergy(fuelOutputEUt);
+					fuelDurationLeft--;
+				}
+			}
+
+			if(fuelDurationLeft == 0 && !tryBurnFuel()) {
+				fuelOutputEUt = 0L;
+				generatorsRunning = 0;
+				if(isActive)
+					setActive(false);
+			}
+		}
+
+		/**
+		 * Finds a fuel in the input hatches and drains enough of it for as many generators as it can run.
+		 *
+		 * @return {@code true} if fuel started burning
+		 */
+		private boolean tryBurnFuel() {
+			// Don't waste fuel on energy that has nowhere to go
+			if(outputEnergyContainer.getEnergyCanBeInserted() < machineVoltage) {
+				isOutputBlocked = true;
+				return false;
+			}
+
+			FuelRecipeMap fuelMap = machineEntry.fuelRecipeMap;
+			this.numberOfMachines = Math.min(GAConfig.processingArray.processingArrayMachineLimit, machineItemStack.getCount());
+
+			for(IFluidTank tank : getInputTank()) {
+				FluidStack fuel = tank.getFluid();
+				if(fuel == null)
+					continue;
+
+				FuelRecipe fuelRecipe = previousFuelRecipe != null && previousFuelRecipe.matches(machineVoltage, fuel) ?
+					previousFuelRecipe : fuelMap.findRecipe(machineVoltage, fuel);
+				if(fuelRecipe == null)
+					continue;
+				previousFuelRecipe = fuelRecipe;
+
+				// A generator above the fuel's minimum voltage burns proportionally more of it per run
+				int voltageMultiplier = (int) (machineVoltage / Math.max(1L, fuelRecipe.getMinVoltage()));
+				int fuelPerMachine = fuelRecipe.getRecipeFluid().amount * voltageMultiplier;
+				int machines = fuelPerMachine <= 0 ? 0 : Math.min(numberOfMachines, fuel.amount / fuelPerMachine);
+				if(machines <= 0)
+					continue;
+
+				tank.drain(fuelPerMachine * machines, true);
+				this.fuelDurationLeft = fuelRecipe.getDuration();
+				this.fuelOutputEUt = machineVoltage * machines;
+				this.generatorsRunning = machines;
+				stats.recordRecipeStarted(machines);
+				if(!isActive)
+					setActive(true);
+				return true;
+			}
+
+			return false;
+		}
+
+		@Override
+		public NBTTagCompound serializeNBT() {
+			NBTTagCompound tag = super.serializeNBT();
+			if(fuelDurationLeft > 0) {
+				tag.setInteger("FuelDurationLeft", fuelDurationLeft);
+				tag.setLong("FuelOutputEUt", fuelOutputEUt);
+				tag.setInteger("GeneratorsRunning", generatorsRunning);
+			}
+			return tag;
+		}
+
+		@Override
+		public void deserializeNBT(NBTTagCompound compound) {
+			super.deserializeNBT(compound);
+			fuelDurationLeft = compound.getInteger("FuelDurationLeft");
+			fuelOutputEUt = compound.getLong("FuelOutputEUt");
+			generatorsRunning = compound.getInteger("GeneratorsRunning");
+		}
+
+		// ------------------------------- End Generator Logic ------------------------------------------------
+
+
 		// Fix improper use of PA's workable for establishing bonus tier (see #187)
 		@Override
 		public int getMachineTierForRecipe(Recipe recipe) {
 			// Get the implementation appropriate for the specific machines and call that
-			if(MachineItemBlock.getMetaTileEntity(machineItemStack) instanceof WorkableTieredMetaTileEntity wmte)
+			if(machineEntry != null && machineEntry.metaTileEntity instanceof WorkableTieredMetaTileEntity wmte)
 				return wmte.getMachineTierForRecipe(recipe);
 
 			// As a contingency, return the base tier so that "overclocks" in setupRecipe (below) is zero
@@ -973,14 +2093,74 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 		@Override
 		protected void setupRecipe(Recipe recipe) {
 			super.setupRecipe(recipe);
-			this.recipeEUt *= this.numberOfOperations;
-			if(metaTileEntity instanceof TileEntityProcessingArray tepa)
-				tepa.activeRecipeMachineStats = new MachineStats(machineTier, numberOfOperations, recipeMap);
+			if(isPacked) {
+				// A packed cycle draws the summed EU/t of its sub-batches for as long as the slowest one takes
+				this.recipeEUt = (int) Math.min(Integer.MAX_VALUE, packedEUt);
+				this.maxProgressTime = packedDuration;
+			} else {
+				// Batched operations are spread over a proportionally longer cycle, at the same total energy
+				int batchFactor = getBatchFactor(this.numberOfOperations);
+				this.recipeEUt = (int) Math.min(Integer.MAX_VALUE, ceilDiv((long) this.recipeEUt * this.numberOfOperations, batchFactor));
+				this.maxProgressTime *= batchFactor;
+			}
+			if(GAConfig.processingArray.binomialChancedOutputs)
+				rollChancedOutputs(recipe);
+
+			// Record the machines in use rather than the operations, as that's what a reformed structure must provide
+			this.activeRecipeMachineStats = new MachineStats(machineTier, Math.min(numberOfOperations, numberOfMachines), recipeMap);
+			stats.recordRecipeStarted(numberOfOperations);
+		}
+
+		/**
+		 * Replaces the single roll per chanced output, which gives all or nothing for the whole batch, with the number
+		 * of operations that succeeded out of the batch, drawn in constant time. Like
+		 * {@link Recipe#getResultItemOutputs}, only as many chanced outputs are rolled as there are output slots left.
+		 */
+		private void rollChancedOutputs(Recipe recipe) {
+			List<ChanceEntry> chancedOutputs = recipe.getChancedOutputs();
+			if(chancedOutputs.isEmpty())
+				return;
+
+			NonNullList<ItemStack> outputs = NonNullList.create();
+			for(ItemStack stack : recipe.getOutputs())
+				outputs.add(stack.copy());
+
+			int maxChancedSlots = getOutputInventory().getSlots() - outputs.size();
+			if(chancedOutputs.size() > maxChancedSlots)
+				chancedOutputs = chancedOutputs.subList(0, Math.max(0, maxChancedSlots));
+
+			Random random = metaTileEntity.getWorld().rand;
+			int overclockTiers = Math.max(0, getMachineTierForRecipe(recipe) - recipe.getBaseTier());
+			for(int i = 0; i < chancedOutputs.size(); i++) {
+				ChanceEntry entry = chancedOutputs.get(i);
+				int trials = isPacked && i < packedChancedTrials.length ? packedChancedTrials[i] : this.numberOfOperations;
+				if(trials <= 0)
+					continue;
+
+				// A roll succeeds when a draw below the max chanced value is at most the boosted chance
+				int chance = entry.getChance() + entry.getBoostPerTier() * overclockTiers;
+				double probability = Math.min(1.0, (chance + 1) / (double) Recipe.getMaxChancedValue());
+
+				int successes = BinomialSampler.sample(random, trials, probability);
+				if(successes > 0) {
+					// The multiplied count is the count of a single operation times the trials
+					ItemStack stack = entry.getItemStack();
+					outputs.add(copyItemStackWithCount(stack, (int) ((long) stack.getCount() * successes / trials)));
+				}
+			}
+
+			this.itemOutputs = outputs;
 		}
 
 		@Override
 		protected void completeRecipe() {
+			Object event = RecipeFlightEvents.COMPLETE.begin();
+			int parallels = activeRecipeMachineStats == null ? 0 : activeRecipeMachineStats.parallels;
+			int duration = maxProgressTime;
+
 			super.completeRecipe();
+			completedThisTick = true;
+			RecipeFlightEvents.COMPLETE.commit(event, getRecipeMapName(), parallels, duration, isJammed ? "jammed" : "completed");
 
 			// if the recipe has actually finished (i.e. not jammed), clear the cached MachineStats
 			if(!isJammed)
@@ -988,6 +2168,47 @@ public class TileEntityProcessingArray extends RecipeMapMultiblockController {
 		}
 	}
 
+	/**
+	 * Identifies a multiplied recipe: the base recipe (by identity), the multiplier, the machine tier and whether
+	 * chanced outputs were kept.
+	 */
+	private static final class MultipliedRecipeKey {
+		private Recipe recipe;
+		private int multiplier;
+		private int machineTier;
+		private boolean keepChancedOutputs;
+
+		void set(Recipe recipe, int multiplier, int machineTier, boolean keepChancedOutputs) {
+			this.recipe = recipe;
+			this.multiplier = multiplier;
+			this.machineTier = machineTier;
+			this.keepChancedOutputs = keepChancedOutputs;
+		}
+
+		MultipliedRecipeKey copy() {
+			MultipliedRecipeKey copy = new MultipliedRecipeKey();
+			copy.set(recipe, multiplier, machineTier, keepChancedOutputs);
+			return copy;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof MultipliedRecipeKey other
+				   && recipe == other.recipe
+				   && multiplier == other.multiplier
+				   && machineTier == other.machineTier
+				   && keepChancedOutputs == other.keepChancedOutputs;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = System.identityHashCode(recipe);
+			result = 31 * result + multiplier;
+			result = 31 * result + machineTier;
+			return 31 * result + (keepChancedOutputs ? 1 : 0);
+		}
+	}
+
 	/**
 	 * Container for caching information about a machine stack. Used for display text and Jammed state checking,
 	 * namely when the structure has been broken and reformed (which nukes much of the active recipe information).
@@ -0,0 +1,155 @@
+package gregicadditions.recipes;
+
+import gregtech.api.recipes.CountableIngredient;
+import gregtech.api.recipes.Recipe;
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenCustomHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.oredict.OreDictionary;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A trie over the item inputs of assembly line recipes, in slice order. Each level is keyed on the item and damage
+ * in one slice, so a lookup follows a single path of at most one node per slice, however many recipes there are.
+ * <p>
+ * An input matching several items branches the trie. Where a recipe would need more than {@link #MAX_PATHS} paths,
+ * or an input matches no known item, it is stored at the node reached so far and fully checked on lookup instead.
+ */
+public class AssemblyLineRecipeIndex {
+
+	/** Most paths a single recipe may take through the trie */
+	private static final int MAX_PATHS = 64;
+
+	/** Keys on item and damage only; NBT and counts are checked against the candidate recipes */
+	private static final Hash.Strategy<ItemStack> KEY_STRATEGY = new Hash.Strategy<ItemStack>() {
+		@Override
+		public int hashCode(ItemStack stack) {
+			return stack == null ? 0 : 31 * Item.getIdFromItem(stack.getItem()) + stack.getMetadata();
+		}
+
+		@Override
+		public boolean equals(ItemStack a, ItemStack b) {
+			if(a == b)
+				return true;
+			return a != null && b != null && a.getItem() == b.getItem() && a.getMetadata() == b.getMetadata();
+		}
+	};
+
+	private static class Node {
+		final Object2ObjectOpenCustomHashMap<ItemStack, Node> children = new Object2ObjectOpenCustomHashMap<>(KEY_STRATEGY);
+		/** Recipes whose path ends at this node */
+		final List<Recipe> recipes = new ArrayList<>(1);
+	}
+
+	/** The root of the trie, or {@code null} until it is next built */
+	private volatile Node root = null;
+
+	/**
+	 * Discards the trie, to be rebuilt on the next lookup.
+	 */
+	public void invalidate() {
+		root = null;
+	}
+
+	/**
+	 * @param voltage     the voltage available
+	 * @param slices      the item in each slice, in order
+	 * @param fluidInputs the available fluids
+	 * @param recipes     every recipe of the map, to build the trie from if needed
+	 * @return the recipe using the most slices whose item inputs match {@code slices} in order, whose fluid inputs
+	 *         are available and which needs at most {@code voltage}, or {@code null} if there is none
+	 */
+	@Nullable
+	public Recipe find(long voltage, List<ItemStack> slices, List<FluidStack> fluidInputs, Collection<Recipe> recipes) {
+		Node root = this.root;
+		if(root == null)
+			this.root = root = build(recipes);
+
+		// Usually a single node; wildcard keys can add a second
+		List<Node> path = new ArrayList<>(slices.size() + 1);
+		Set<Node> frontier = new ReferenceLinkedOpenHashSet<>();
+		frontier.add(root);
+		path.add(root);
+
+		for(ItemStack stack : slices) {
+			if(stack.isEmpty() || frontier.isEmpty())
+				break;
+
+			ItemStack wildcardKey = new ItemStack(stack.getItem(), 1, OreDictionary.WILDCARD_VALUE);
+			Set<Node> next = new ReferenceLinkedOpenHashSet<>();
+			for(Node node : frontier) {
+				Node child = node.children.get(stack);
+				if(child != null)
+					next.add(child);
+				child = node.children.get(wildcardKey);
+				if(child != null)
+					next.add(child);
+			}
+			path.addAll(next);
+			frontier = next;
+		}
+
+		// Deepest first, so that a recipe using more slices wins over one using a prefix of them
+		for(int i = path.size() - 1; i >= 0; i--)
+			for(Recipe recipe : path.get(i).recipes)
+				if(voltage >= recipe.getEUt() && matchesInOrder(recipe, slices) && recipe.matches(false, slices, fluidInputs))
+					return recipe;
+		return null;
+	}
+
+	/**
+	 * @return {@code true} if each item input of {@code recipe} is satisfied by the slice at the same position
+	 */
+	public static boolean matchesInOrder(Recipe recipe, List<ItemStack> slices) {
+		List<CountableIngredient> inputs = recipe.getInputs();
+		if(inputs.size() > slices.size())
+			return false;
+
+		for(int i = 0; i < inputs.size(); i++) {
+			CountableIngredient input = inputs.get(i);
+			ItemStack stack = slices.get(i);
+			if(stack.getCount() < input.getCount() || !input.getIngredient().apply(stack))
+				return false;
+		}
+		return true;
+	}
+
+	private static Node build(Collection<Recipe> recipes) {
+		Node root = new Node();
+		for(Recipe recipe : recipes)
+			insert(root, recipe);
+		return root;
+	}
+
+	private static void insert(Node root, Recipe recipe) {
+		Set<Node> level = new ReferenceLinkedOpenHashSet<>();
+		level.add(root);
+
+		for(CountableIngredient input : recipe.getInputs()) {
+			ItemStack[] matchingStacks = input.getIngredient().getMatchingStacks();
+			if(matchingStacks.length == 0 || level.size() * matchingStacks.length > MAX_PATHS)
+				break;
+
+			Set<Node> next = new ReferenceLinkedOpenHashSet<>();
+			for(Node node : level)
+				for(ItemStack stack : matchingStacks) {
+					Node child = node.children.get(stack);
+					if(child == null)
+						node.children.put(stack.copy(), child = new Node());
+					next.add(child);
+				}
+			level = next;
+		}
+
+		for(Node node : level)
+			node.recipes.add(recipe);
+	}
+}
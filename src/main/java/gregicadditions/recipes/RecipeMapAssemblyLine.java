@@ -1,25 +1,61 @@
 package gregicadditions.recipes;
 
+import java.util.List;
 import java.util.function.DoubleSupplier;
 
+import javax.annotation.Nullable;
+
+import gregicadditions.GAConfig;
 import gregtech.api.capability.impl.FluidTankList;
 import gregtech.api.gui.GuiTextures;
 import gregtech.api.gui.ModularUI;
 import gregtech.api.gui.resources.TextureArea;
 import gregtech.api.gui.widgets.ProgressWidget;
+import gregtech.api.recipes.Recipe;
 import gregtech.api.recipes.RecipeBuilder;
 import gregtech.api.recipes.RecipeMap;
+import gregtech.api.util.ValidationResult;
 import net.minecraft.entity.player.InventoryPlayer;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.items.IItemHandlerModifiable;
 
 public class RecipeMapAssemblyLine<R extends RecipeBuilder<R>> extends RecipeMap<R> {
 	private TextureArea progressBarTexture;
 	private ProgressWidget.MoveType moveType;
 
+	/** Recipes by their item inputs in slice order */
+	private final AssemblyLineRecipeIndex index = new AssemblyLineRecipeIndex();
+
 	public RecipeMapAssemblyLine(String unlocalizedName, int minInputs, int maxInputs, int minOutputs, int maxOutputs, int minFluidInputs, int maxFluidInputs, int minFluidOutputs, int maxFluidOutputs, R defaultRecipe) {
 		super(unlocalizedName, minInputs, maxInputs, minOutputs, maxOutputs, minFluidInputs, maxFluidInputs, minFluidOutputs, maxFluidOutputs, defaultRecipe);
 	}
 
+	@Override
+	public void addRecipe(ValidationResult<Recipe> validationResult) {
+		super.addRecipe(validationResult);
+		index.invalidate();
+	}
+
+	@Override
+	public boolean removeRecipe(Recipe recipe) {
+		index.invalidate();
+		return super.removeRecipe(recipe);
+	}
+
+	/**
+	 * Looks the inputs up slice by slice, with {@code inputs} in slice order. Inputs that don't match any recipe in
+	 * order are then looked up as usual, unless the config requires them in order.
+	 */
+	@Override
+	@Nullable
+	public Recipe findRecipe(long voltage, List<ItemStack> inputs, List<FluidStack> fluidInputs, int outputFluidTankCapacity) {
+		Recipe recipe = index.find(voltage, inputs, fluidInputs, getRecipeList());
+		if(recipe != null || !GAConfig.multiblocks.assemblyLineAnyOrder)
+			return recipe;
+		return super.findRecipe(voltage, inputs, fluidInputs, outputFluidTankCapacity);
+	}
+
 	@Override
 	public RecipeMapAssemblyLine<R> setProgressBar(TextureArea progressBar, ProgressWidget.MoveType moveType) {
 		this.progressBarTexture = progressBar;
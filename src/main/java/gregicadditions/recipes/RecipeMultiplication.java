@@ -0,0 +1,74 @@
+package gregicadditions.recipes;
+
+import gregtech.api.recipes.CountableIngredient;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.Recipe.ChanceEntry;
+import gregtech.api.recipes.RecipeBuilder;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidStack;
+
+import java.util.List;
+
+/**
+ * Builds the parts of a recipe run several times at once, as the Processing Array and Assembly Line do.
+ */
+public final class RecipeMultiplication {
+
+	private RecipeMultiplication() {}
+
+	/**
+	 * Adds the inputs and outputs of {@code recipe}, each multiplied by {@code numberOfOperations}, to the given lists.
+	 */
+	public static void multiplyInputsAndOutputs(List<CountableIngredient> newRecipeInputs,
+	                                            List<FluidStack> newFluidInputs,
+	                                            List<ItemStack> outputItems,
+	                                            List<FluidStack> outputFluids,
+	                                            Recipe recipe,
+	                                            int numberOfOperations) {
+
+		recipe.getInputs().forEach(ci ->
+			                           newRecipeInputs.add(new CountableIngredient(ci.getIngredient(),
+			                                                                       ci.getCount() * numberOfOperations)));
+
+		recipe.getFluidInputs().forEach(fluidStack ->
+			                                newFluidInputs.add(new FluidStack(fluidStack.getFluid(),
+			                                                                  fluidStack.amount * numberOfOperations)));
+
+		recipe.getOutputs().forEach(itemStack ->
+			                            outputItems.add(copyItemStackWithCount(itemStack,
+			                                                                   itemStack.getCount() * numberOfOperations)));
+
+		recipe.getFluidOutputs().forEach(fluidStack ->
+			                                 outputFluids.add(copyFluidStackWithAmount(fluidStack,
+			                                                                           fluidStack.amount * numberOfOperations)));
+	}
+
+	/**
+	 * Adds the chanced outputs of {@code oldRecipe} to {@code newRecipe}, with their counts multiplied by
+	 * {@code numberOfOperations} and their chances unchanged.
+	 */
+	public static void copyChancedItemOutputs(RecipeBuilder<?> newRecipe,
+	                                          Recipe oldRecipe,
+	                                          int numberOfOperations) {
+		for(ChanceEntry entry : oldRecipe.getChancedOutputs()) {
+			int chance = entry.getChance();
+			ItemStack itemStack = entry.getItemStack().copy();
+			int boost = entry.getBoostPerTier();
+			itemStack.setCount(itemStack.getCount() * numberOfOperations);
+
+			newRecipe.chancedOutput(itemStack, chance, boost);
+		}
+	}
+
+	public static ItemStack copyItemStackWithCount(ItemStack itemStack, int count) {
+		ItemStack itemCopy = itemStack.copy();
+		itemCopy.setCount(count);
+		return itemCopy;
+	}
+
+	public static FluidStack copyFluidStackWithAmount(FluidStack fluidStack, int count) {
+		FluidStack fluidCopy = fluidStack.copy();
+		fluidCopy.amount = count;
+		return fluidCopy;
+	}
+}
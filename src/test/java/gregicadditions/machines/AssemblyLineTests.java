@@ -0,0 +1,91 @@
+package gregicadditions.machines;
+
+import gregtech.api.capability.impl.FluidTankList;
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeMap;
+import gregtech.api.recipes.builders.SimpleRecipeBuilder;
+import net.minecraft.init.*;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidRegistry;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.FluidTank;
+import net.minecraftforge.items.ItemStackHandler;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for running several copies of a recipe on an Assembly Line with surplus slices.
+ */
+public class AssemblyLineTests {
+
+    private static RecipeMap<SimpleRecipeBuilder> recipeMap;
+
+    @BeforeAll
+    public static void bootStrap() {
+        Bootstrap.register();
+        recipeMap = new RecipeMap<>("assembly_line_tests", 0, 16, 0, 1, 0, 1, 0, 0, new SimpleRecipeBuilder());
+    }
+
+    /** Paper then leather, one slice each, with 100 mB of water at 30 EU/t */
+    private static Recipe recipe() {
+        return recipe(30);
+    }
+
+    /** Paper then leather, one slice each, with 100 mB of water */
+    private static Recipe recipe(int EUt) {
+        return recipeMap.recipeBuilder()
+                        .inputs(new ItemStack(Items.PAPER), new ItemStack(Items.LEATHER))
+                        .fluidInputs(new FluidStack(FluidRegistry.WATER, 100))
+                        .outputs(new ItemStack(Items.BOOK))
+                        .EUt(EUt)
+                        .duration(20)
+                        .build()
+                        .getResult();
+    }
+
+    /** @return slices holding {@code sets} copies of paper then leather, then the rest of the stacks */
+    private static ItemStackHandler slices(int sets, ItemStack... rest) {
+        ItemStackHandler slices = new ItemStackHandler(sets * 2 + rest.length);
+        for(int i = 0; i < sets; i++) {
+            slices.setStackInSlot(2 * i, new ItemStack(Items.PAPER));
+            slices.setStackInSlot(2 * i + 1, new ItemStack(Items.LEATHER));
+        }
+        for(int i = 0; i < rest.length; i++)
+            slices.setStackInSlot(sets * 2 + i, rest[i]);
+        return slices;
+    }
+
+    private static FluidTankList water(int amount) {
+        return new FluidTankList(false, new FluidTank(new FluidStack(FluidRegistry.WATER, amount), 64000));
+    }
+
+    @Test
+    public void parallels_count_the_full_groups_of_slices() {
+        assertEquals(1, TileEntityAssemblyLine.getParallels(recipe(), slices(1), water(1000), 512));
+        assertEquals(4, TileEntityAssemblyLine.getParallels(recipe(), slices(4), water(1000), 512));
+        // A trailing partial group doesn't count
+        assertEquals(2, TileEntityAssemblyLine.getParallels(recipe(), slices(2, new ItemStack(Items.PAPER)), water(1000), 512));
+    }
+
+    @Test
+    public void parallels_stop_at_the_first_group_out_of_order() {
+        ItemStackHandler slices = slices(1, new ItemStack(Items.LEATHER), new ItemStack(Items.PAPER),
+                                         new ItemStack(Items.PAPER), new ItemStack(Items.LEATHER));
+
+        assertEquals(1, TileEntityAssemblyLine.getParallels(recipe(), slices, water(1000), 512));
+    }
+
+    @Test
+    public void parallels_are_limited_by_fluids_and_energy() {
+        assertEquals(3, TileEntityAssemblyLine.getParallels(recipe(), slices(4), water(300), 512));
+        assertEquals(2, TileEntityAssemblyLine.getParallels(recipe(), slices(4), water(1000), 60));
+    }
+
+    @Test
+    public void parallels_keep_the_multiplied_eut_within_an_int() {
+        // Two copies would draw 2^31 EU/t
+        assertEquals(1, TileEntityAssemblyLine.getParallels(recipe(1 << 30), slices(4), water(1000), Long.MAX_VALUE));
+        assertEquals(3, TileEntityAssemblyLine.getParallels(recipe(Integer.MAX_VALUE / 3), slices(4), water(1000), Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,92 @@
+package gregicadditions.machines;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the edge cases and the distribution of {@link BinomialSampler}, on both sides of the switch to the
+ * normal approximation.
+ */
+public class BinomialSamplerTests {
+
+    private static final int SAMPLES = 20_000;
+
+    @Test
+    public void no_chance_never_succeeds() {
+        Random random = new Random(1);
+        for(int i = 0; i < 100; i++)
+            assertEquals(0, BinomialSampler.sample(random, 1000, 0));
+    }
+
+    @Test
+    public void certain_chance_always_succeeds() {
+        Random random = new Random(2);
+        for(int i = 0; i < 100; i++)
+            assertEquals(1000, BinomialSampler.sample(random, 1000, 1));
+    }
+
+    @Test
+    public void no_trials_never_succeed() {
+        assertEquals(0, BinomialSampler.sample(new Random(3), 0, 0.5));
+    }
+
+    @Test
+    public void single_trial_succeeds_at_its_chance() {
+        Random random = new Random(4);
+        int successes = 0;
+        for(int i = 0; i < SAMPLES; i++) {
+            int result = BinomialSampler.sample(random, 1, 0.25);
+            assertTrue(result == 0 || result == 1);
+            successes += result;
+        }
+        assertMoments(successes, (long) successes, 1, 0.25);
+    }
+
+    @Test
+    public void small_variance_matches_the_binomial_distribution() {
+        // Variance 8.4, drawn by inversion
+        assertDistribution(new Random(5), 40, 0.3);
+    }
+
+    @Test
+    public void large_variance_matches_the_binomial_distribution() {
+        // Variance 10.5, just past the switch to the normal approximation
+        assertDistribution(new Random(6), 50, 0.3);
+        assertDistribution(new Random(7), 10_000, 0.3);
+    }
+
+    @Test
+    public void high_chance_matches_the_binomial_distribution() {
+        assertDistribution(new Random(8), 20, 0.9);
+        assertDistribution(new Random(9), 1000, 0.95);
+    }
+
+    private static void assertDistribution(Random random, int trials, double chance) {
+        long sum = 0;
+        long sumOfSquares = 0;
+        for(int i = 0; i < SAMPLES; i++) {
+            int result = BinomialSampler.sample(random, trials, chance);
+            assertTrue(result >= 0 && result <= trials);
+            sum += result;
+            sumOfSquares += (long) result * result;
+        }
+        assertMoments(sum, sumOfSquares, trials, chance);
+    }
+
+    /**
+     * Checks the sample mean to within five standard errors, and the sample variance to within 10%.
+     */
+    private static void assertMoments(long sum, long sumOfSquares, int trials, double chance) {
+        double expectedMean = trials * chance;
+        double expectedVariance = trials * chance * (1 - chance);
+
+        double mean = sum / (double) SAMPLES;
+        double variance = sumOfSquares / (double) SAMPLES - mean * mean;
+
+        assertEquals(expectedMean, mean, 5 * Math.sqrt(expectedVariance / SAMPLES));
+        assertEquals(expectedVariance, variance, 0.1 * expectedVariance);
+    }
+}
@@ -0,0 +1,151 @@
+package gregicadditions.machines;
+
+import gregicadditions.Tags;
+import gregtech.api.GTValues;
+import gregtech.api.capability.impl.AbstractRecipeLogic;
+import gregtech.api.metatileentity.MetaTileEntity;
+import gregtech.api.metatileentity.MetaTileEntityHolder;
+import gregtech.api.multiblock.BlockPattern;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.ResourceLocation;
+import org.junit.jupiter.api.*;
+
+import static gregicadditions.machines.TileEntityFusionReactor.HEAT_DECAY_PER_TICK;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the heat of the Fusion Reactor: how it decays while idle, including across a save, and when it can be
+ * made up from the energy buffer.
+ */
+public class FusionReactorTests {
+
+    private static final long HEAT = 1_000_000L;
+
+    @BeforeAll
+    public static void bootStrap() {
+        Bootstrap.register();
+    }
+
+    @Test
+    public void heat_decays_by_a_fixed_amount_each_tick() {
+        assertEquals(HEAT, TileEntityFusionReactor.decayHeat(HEAT, 0));
+        assertEquals(HEAT - HEAT_DECAY_PER_TICK, TileEntityFusionReactor.decayHeat(HEAT, 1));
+        assertEquals(HEAT - 50 * HEAT_DECAY_PER_TICK, TileEntityFusionReactor.decayHeat(HEAT, 50));
+    }
+
+    @Test
+    public void heat_stops_decaying_at_zero() {
+        assertEquals(0, TileEntityFusionReactor.decayHeat(HEAT, HEAT / HEAT_DECAY_PER_TICK));
+        assertEquals(0, TileEntityFusionReactor.decayHeat(HEAT, HEAT / HEAT_DECAY_PER_TICK + 1));
+        assertEquals(0, TileEntityFusionReactor.decayHeat(HEAT_DECAY_PER_TICK / 2, 1));
+        assertEquals(0, TileEntityFusionReactor.decayHeat(0, 1));
+    }
+
+    @Test
+    public void heat_decay_does_not_overflow_over_long_idle_spans() {
+        assertEquals(0, TileEntityFusionReactor.decayHeat(HEAT, Long.MAX_VALUE));
+        assertEquals(0, TileEntityFusionReactor.decayHeat(Long.MAX_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void heat_is_reached_when_hot_enough_or_from_the_buffer() {
+        // Hot enough already, with an empty buffer
+        assertTrue(TileEntityFusionReactor.canReachHeat(HEAT, HEAT, 10 * HEAT, 0));
+        // The missing heat is exactly what the buffer holds
+        assertTrue(TileEntityFusionReactor.canReachHeat(HEAT, HEAT / 2, 10 * HEAT, HEAT / 2));
+        // One EU short
+        assertFalse(TileEntityFusionReactor.canReachHeat(HEAT, HEAT / 2, 10 * HEAT, HEAT / 2 - 1));
+    }
+
+    @Test
+    public void heat_above_the_buffer_capacity_is_never_reached() {
+        assertFalse(TileEntityFusionReactor.canReachHeat(HEAT, 2 * HEAT, HEAT - 1, HEAT - 1));
+    }
+
+    @Test
+    public void idle_heat_keeps_decaying_across_a_save() {
+        TestReactor saved = TestReactor.at(100);
+        NBTTagCompound tag = saved.getWorkable().serializeNBT();
+        // Saved at tick 100 while idle
+        tag.setLong("Heat", HEAT);
+        tag.setLong("HeatTime", 100);
+
+        // Loaded 50 ticks later, as after the chunk was unloaded for that long
+        TestReactor loaded = TestReactor.at(150);
+        loaded.getWorkable().deserializeNBT(tag);
+        assertEquals(HEAT - 50 * HEAT_DECAY_PER_TICK, loaded.getHeat());
+
+        // Saving again brings the heat up to date and starts the decay from there
+        NBTTagCompound resaved = loaded.getWorkable().serializeNBT();
+        assertEquals(HEAT - 50 * HEAT_DECAY_PER_TICK, resaved.getLong("Heat"));
+        assertEquals(150, resaved.getLong("HeatTime"));
+    }
+
+    @Test
+    public void heat_does_not_decay_on_the_first_tick_after_loading() {
+        TestReactor saved = TestReactor.at(100);
+        NBTTagCompound tag = saved.getWorkable().serializeNBT();
+        // Saved while running
+        tag.setLong("Heat", HEAT);
+        tag.setLong("HeatTime", -1);
+
+        TestReactor loaded = TestReactor.at(150);
+        loaded.getWorkable().deserializeNBT(tag);
+        // The structure hasn't been checked on the first tick, so the reactor isn't taken for stopped yet
+        loaded.tick();
+        loaded.setTime(160);
+        assertEquals(HEAT, loaded.getHeat());
+
+        // It is unformed, so it starts decaying on the next tick
+        loaded.tick();
+        loaded.setTime(170);
+        assertEquals(HEAT - 10 * HEAT_DECAY_PER_TICK, loaded.getHeat());
+    }
+
+    /**
+     * A reactor whose structure never forms, in a world without chunks.
+     */
+    private static class TestReactor extends TileEntityFusionReactor {
+        private final MetaTileEntityHolder holder = new MetaTileEntityHolder();
+
+        private TestReactor() {
+            super(new ResourceLocation(Tags.MODID, "test_fusion_reactor"), GTValues.LuV);
+        }
+
+        /** @return a reactor in a world at {@code time} */
+        static TestReactor at(long time) {
+            TestReactor reactor = new TestReactor();
+            reactor.holder.setMetaTileEntity(reactor);
+            reactor.holder.setWorld(new MultiblockSimulator.SimulatedWorld());
+            reactor.holder.setPos(MultiblockSimulator.POS);
+            reactor.setTime(time);
+            return reactor;
+        }
+
+        void setTime(long time) {
+            getWorld().getWorldInfo().setWorldTotalTime(time);
+        }
+
+        void tick() {
+            holder.update();
+        }
+
+        AbstractRecipeLogic getWorkable() {
+            return recipeMapWorkable;
+        }
+
+        @Override
+        protected void checkStructurePattern() {}
+
+        @Override
+        protected BlockPattern createStructurePattern() {
+            return null;
+        }
+
+        @Override
+        public MetaTileEntity createMetaTileEntity(MetaTileEntityHolder holder) {
+            return this;
+        }
+    }
+}
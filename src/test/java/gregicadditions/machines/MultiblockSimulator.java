@@ -0,0 +1,645 @@
+package gregicadditions.machines;
+
+import gregicadditions.GACapabilities;
+import gregicadditions.Tags;
+import gregtech.api.GTValues;
+import gregtech.api.capability.IEnergyContainer;
+import gregtech.api.capability.impl.AbstractRecipeLogic;
+import gregtech.api.capability.impl.FluidTankList;
+import gregtech.api.capability.impl.ItemHandlerList;
+import gregtech.api.capability.impl.NotifiableFluidTank;
+import gregtech.api.capability.impl.NotifiableItemStackHandler;
+import gregtech.api.metatileentity.MetaTileEntity;
+import gregtech.api.metatileentity.MetaTileEntityHolder;
+import gregtech.api.metatileentity.multiblock.MultiblockAbility;
+import gregtech.api.multiblock.BlockPattern;
+import gregtech.api.multiblock.PatternMatchContext;
+import gregtech.api.recipes.RecipeMap;
+import gregtech.api.util.GTUtility;
+import net.minecraft.init.Blocks;
+import net.minecraft.item.ItemStack;
+import net.minecraft.profiler.Profiler;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.GameType;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldProviderSurface;
+import net.minecraft.world.WorldSettings;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.storage.WorldInfo;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.FluidTank;
+import net.minecraftforge.items.IItemHandlerModifiable;
+import net.minecraftforge.items.ItemHandlerHelper;
+import net.minecraftforge.items.ItemStackHandler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Runs a GA multiblock controller for a number of ticks against stub buses, tanks and energy hatches, and reports
+ * its throughput. Meant for sizing builds before placing them, and for catching throughput regressions.
+ * <p>
+ * The controllers are the real ones, ticked through a {@link MetaTileEntityHolder} in a world without chunks. Only
+ * the structure is faked: it counts as formed from the start, with the stubs as its abilities. Processing Array
+ * machines are stood in for by a marker stack that the array takes for machines of the given recipe map.
+ */
+public class MultiblockSimulator {
+
+    public static final int TICKS_PER_SECOND = 20;
+
+    /** Below the world, so that the holder never looks for a chunk */
+    static final BlockPos POS = new BlockPos(0, -1, 0);
+
+    private final Function<Abilities, SimulatedController> factory;
+    private final long voltage;
+
+    private final List<Integer> machineCounts = new ArrayList<>();
+    private final List<ItemStack> slices = new ArrayList<>();
+    private final List<Integer> inputBusSlots = new ArrayList<>();
+    private final List<Integer> inputTankCapacities = new ArrayList<>();
+    private final List<Integer> outputBusSlots = new ArrayList<>();
+    private final List<Integer> outputTankCapacities = new ArrayList<>();
+    private final List<ItemStack> itemStock = new ArrayList<>();
+    private final List<ItemStack> itemSupply = new ArrayList<>();
+    private final List<FluidStack> fluidSupply = new ArrayList<>();
+    private final List<String> displayClicks = new ArrayList<>();
+    private boolean drainOutputs = true;
+
+    private long energyCapacity = Long.MAX_VALUE;
+    private long energyPerTick = Long.MAX_VALUE;
+    private long initialEnergy = 0;
+
+    private MultiblockSimulator(Function<Abilities, SimulatedController> factory, long voltage) {
+        this.factory = factory;
+        this.voltage = voltage;
+    }
+
+    /**
+     * Add machines with {@link #machines}.
+     *
+     * @param machineRecipes the recipe map of the machines in the array
+     * @param voltage        the voltage of the machines and of the energy hatch
+     */
+    public static MultiblockSimulator processingArray(RecipeMap<?> machineRecipes, long voltage) {
+        int tier = GTUtility.getTierByVoltage(voltage);
+        return new MultiblockSimulator(abilities -> new SimulatedProcessingArray(abilities, machineRecipes, tier), voltage);
+    }
+
+    /**
+     * Runs the recipes of the assembly line recipe map. Add slices with {@link #slice}.
+     *
+     * @param voltage the voltage of the energy hatch
+     */
+    public static MultiblockSimulator assemblyLine(long voltage) {
+        return new MultiblockSimulator(SimulatedAssemblyLine::new, voltage);
+    }
+
+    /**
+     * Runs the recipes of the fusion recipe map, with one energy hatch.
+     *
+     * @param tier the tier of the reactor, from {@link GTValues#LuV} up
+     */
+    public static MultiblockSimulator fusionReactor(int tier) {
+        return new MultiblockSimulator(abilities -> new SimulatedFusionReactor(abilities, tier), GTValues.V[tier]);
+    }
+
+    /**
+     * Adds a Machine Access Interface holding a number of machines, each interface running its own recipes.
+     */
+    public MultiblockSimulator machines(int count) {
+        machineCounts.add(count);
+        return this;
+    }
+
+    /**
+     * Adds an Assembly Line slice: a single slot input bus, kept topped up with {@code stack}.
+     * Slices are in the order they are added, starting next to the controller.
+     */
+    public MultiblockSimulator slice(ItemStack stack) {
+        slices.add(stack.copy());
+        return this;
+    }
+
+    /**
+     * Adds empty input buses.
+     */
+    public MultiblockSimulator inputBuses(int count, int slots) {
+        for(int i = 0; i < count; i++)
+            inputBusSlots.add(slots);
+        return this;
+    }
+
+    /**
+     * Adds empty input tanks.
+     */
+    public MultiblockSimulator inputTanks(int count, int capacity) {
+        for(int i = 0; i < count; i++)
+            inputTankCapacities.add(capacity);
+        return this;
+    }
+
+    /**
+     * Adds empty output buses.
+     */
+    public MultiblockSimulator outputBuses(int count, int slots) {
+        for(int i = 0; i < count; i++)
+            outputBusSlots.add(slots);
+        return this;
+    }
+
+    /**
+     * Adds empty output tanks.
+     */
+    public MultiblockSimulator outputTanks(int count, int capacity) {
+        for(int i = 0; i < count; i++)
+            outputTankCapacities.add(capacity);
+        return this;
+    }
+
+    /**
+     * @param stack inserted into the input buses once, before the first tick
+     */
+    public MultiblockSimulator stock(ItemStack stack) {
+        itemStock.add(stack.copy());
+        return this;
+    }
+
+    /**
+     * @param stack inserted into the input buses every tick, as far as they have room
+     */
+    public MultiblockSimulator supply(ItemStack stack) {
+        itemSupply.add(stack.copy());
+        return this;
+    }
+
+    /**
+     * @param stack filled into the input tanks every tick, as far as they have room
+     */
+    public MultiblockSimulator supply(FluidStack stack) {
+        fluidSupply.add(stack.copy());
+        return this;
+    }
+
+    /**
+     * @param drain whether the outputs are emptied every tick, as by pipes or conveyors. Otherwise they fill up.
+     */
+    public MultiblockSimulator drainOutputs(boolean drain) {
+        this.drainOutputs = drain;
+        return this;
+    }
+
+    /**
+     * @param capacity    the size of the energy hatch's buffer
+     * @param euPerTick   the energy that flows into the hatch every tick
+     * @param initialFill the energy stored at the start
+     */
+    public MultiblockSimulator energy(long capacity, long euPerTick, long initialFill) {
+        this.energyCapacity = capacity;
+        this.energyPerTick = euPerTick;
+        this.initialEnergy = Math.min(capacity, initialFill);
+        return this;
+    }
+
+    /**
+     * Clicks a button in the controller's display before the first tick, such as {@code "batch"} or
+     * {@code "packing"} on a Processing Array, or {@code "pipeline"} on an Assembly Line.
+     */
+    public MultiblockSimulator click(String componentData) {
+        displayClicks.add(componentData);
+        return this;
+    }
+
+    /**
+     * Runs the multiblock for a number of ticks.
+     */
+    public Result run(int ticks) {
+        SimulatedWorld world = new SimulatedWorld();
+        Abilities abilities = new Abilities();
+        SimulatedController controller = factory.apply(abilities);
+        MetaTileEntity metaTileEntity = (MetaTileEntity) controller;
+
+        // Attach before there is a world, so that the holder doesn't notify any neighbours
+        MetaTileEntityHolder holder = new MetaTileEntityHolder();
+        holder.setMetaTileEntity(metaTileEntity);
+        holder.setWorld(world);
+        holder.setPos(POS);
+
+        for(int count : machineCounts) {
+            ItemStackHandler machineHolder = new ItemStackHandler(1);
+            machineHolder.setStackInSlot(0, new ItemStack(Blocks.FURNACE, count));
+            abilities.add(GACapabilities.PA_MACHINE_CONTAINER, machineHolder);
+        }
+
+        List<NotifiableItemStackHandler> sliceBuses = new ArrayList<>();
+        for(int i = 0; i < slices.size(); i++) {
+            NotifiableItemStackHandler bus = new NotifiableItemStackHandler(1, metaTileEntity, false);
+            sliceBuses.add(bus);
+            abilities.add(MultiblockAbility.IMPORT_ITEMS, bus);
+        }
+        List<IItemHandlerModifiable> inputBuses = new ArrayList<>();
+        for(int slots : inputBusSlots) {
+            NotifiableItemStackHandler bus = new NotifiableItemStackHandler(slots, metaTileEntity, false);
+            inputBuses.add(bus);
+            abilities.add(MultiblockAbility.IMPORT_ITEMS, bus);
+        }
+        List<FluidTank> inputTanks = new ArrayList<>();
+        for(int capacity : inputTankCapacities) {
+            NotifiableFluidTank tank = new NotifiableFluidTank(capacity, metaTileEntity, false);
+            inputTanks.add(tank);
+            abilities.add(MultiblockAbility.IMPORT_FLUIDS, tank);
+        }
+        List<ItemStackHandler> outputBuses = new ArrayList<>();
+        for(int slots : outputBusSlots) {
+            NotifiableItemStackHandler bus = new NotifiableItemStackHandler(slots, metaTileEntity, true);
+            outputBuses.add(bus);
+            abilities.add(MultiblockAbility.EXPORT_ITEMS, bus);
+        }
+        List<FluidTank> outputTanks = new ArrayList<>();
+        for(int capacity : outputTankCapacities) {
+            NotifiableFluidTank tank = new NotifiableFluidTank(capacity, metaTileEntity, true);
+            outputTanks.add(tank);
+            abilities.add(MultiblockAbility.EXPORT_FLUIDS, tank);
+        }
+        EnergyHatch energyHatch = new EnergyHatch(voltage, energyCapacity, initialEnergy);
+        abilities.add(MultiblockAbility.INPUT_ENERGY, energyHatch);
+
+        controller.form();
+        for(String componentData : displayClicks)
+            controller.click(componentData);
+
+        ItemHandlerList inputs = new ItemHandlerList(inputBuses);
+        // Each fluid only goes into one tank, as it would from a pipe into separate hatches
+        FluidTankList fluidInputs = new FluidTankList(false, inputTanks);
+        for(ItemStack stack : itemStock)
+            ItemHandlerHelper.insertItemStacked(inputs, stack.copy(), false);
+
+        List<? extends AbstractRecipeLogic> workables = controller.getWorkables();
+        boolean[] wasJammed = new boolean[workables.size()];
+        Result result = new Result(ticks);
+
+        for(int tick = 0; tick < ticks; tick++) {
+            for(int i = 0; i < slices.size(); i++)
+                ItemHandlerHelper.insertItemStacked(sliceBuses.get(i), slices.get(i).copy(), false);
+            for(ItemStack stack : itemSupply)
+                ItemHandlerHelper.insertItemStacked(inputs, stack.copy(), false);
+            for(FluidStack stack : fluidSupply)
+                fluidInputs.fill(stack.copy(), true);
+            energyHatch.refill(energyPerTick);
+
+            holder.update();
+
+            boolean progressing = false;
+            for(int i = 0; i < workables.size(); i++) {
+                AbstractRecipeLogic workable = workables.get(i);
+                progressing |= workable.getProgress() > 0 && !workable.isHasNotEnoughEnergy();
+                if(workable.isJammed() && !wasJammed[i])
+                    result.jamEvents++;
+                wasJammed[i] = workable.isJammed();
+            }
+            if(!progressing)
+                result.idleTicks++;
+
+            if(drainOutputs)
+                drain(outputBuses, outputTanks, result);
+            world.getWorldInfo().setWorldTotalTime(world.getTotalWorldTime() + 1);
+        }
+
+        if(!drainOutputs)
+            drain(outputBuses, outputTanks, result);
+        result.euConsumed = energyHatch.drawn;
+        return result;
+    }
+
+    /**
+     * Counts what has been output, and empties the outputs.
+     */
+    private static void drain(List<ItemStackHandler> outputBuses, List<FluidTank> outputTanks, Result result) {
+        for(ItemStackHandler bus : outputBuses)
+            for(int slot = 0; slot < bus.getSlots(); slot++) {
+                if(bus.getStackInSlot(slot).isEmpty())
+                    continue;
+                result.itemsProduced += bus.getStackInSlot(slot).getCount();
+                bus.setStackInSlot(slot, ItemStack.EMPTY);
+            }
+        for(FluidTank tank : outputTanks) {
+            FluidStack drained = tank.drain(Integer.MAX_VALUE, true);
+            if(drained != null)
+                result.fluidProduced += drained.amount;
+        }
+    }
+
+    /**
+     * What a run produced and consumed.
+     */
+    public static class Result {
+        public final int ticks;
+        public long itemsProduced = 0;
+        public long fluidProduced = 0;
+        /** Energy drawn from the energy hatch */
+        public long euConsumed = 0;
+        /** Ticks in which no recipe made progress */
+        public long idleTicks = 0;
+        /** Times a workable went from not jammed to jammed */
+        public long jamEvents = 0;
+
+        Result(int ticks) {
+            this.ticks = ticks;
+        }
+
+        public double getItemsPerSecond() {
+            return itemsProduced * (double) TICKS_PER_SECOND / ticks;
+        }
+
+        public double getIdlePercent() {
+            return idleTicks * 100.0 / ticks;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d ticks: %.2f items/s, %d mB fluid, %d EU, %.1f%% idle, %d jams",
+                                 ticks, getItemsPerSecond(), fluidProduced, euConsumed, getIdlePercent(), jamEvents);
+        }
+    }
+
+    /**
+     * The stub parts of the structure, by ability.
+     */
+    private static class Abilities {
+        private final Map<MultiblockAbility<?>, List<Object>> parts = new HashMap<>();
+
+        void add(MultiblockAbility<?> ability, Object part) {
+            parts.computeIfAbsent(ability, key -> new ArrayList<>()).add(part);
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> List<T> get(MultiblockAbility<T> ability) {
+            return (List<T>) Collections.unmodifiableList(parts.getOrDefault(ability, Collections.emptyList()));
+        }
+    }
+
+    /**
+     * Stands in for an energy hatch, counting the energy drawn from it.
+     */
+    private static class EnergyHatch implements IEnergyContainer {
+        private final long voltage;
+        private final long capacity;
+        private long stored;
+        long drawn = 0;
+
+        EnergyHatch(long voltage, long capacity, long stored) {
+            this.voltage = voltage;
+            this.capacity = capacity;
+            this.stored = stored;
+        }
+
+        void refill(long energy) {
+            stored += Math.min(energy, capacity - stored);
+        }
+
+        @Override
+        public long acceptEnergyFromNetwork(EnumFacing side, long voltage, long amperage) {
+            return 0;
+        }
+
+        @Override
+        public boolean inputsEnergy(EnumFacing side) {
+            return true;
+        }
+
+        @Override
+        public long changeEnergy(long differenceAmount) {
+            long change = Math.max(-stored, Math.min(capacity - stored, differenceAmount));
+            stored += change;
+            if(change < 0)
+                drawn -= change;
+            return change;
+        }
+
+        @Override
+        public long getEnergyStored() {
+            return stored;
+        }
+
+        @Override
+        public long getEnergyCapacity() {
+            return capacity;
+        }
+
+        @Override
+        public long getInputAmperage() {
+            return 2;
+        }
+
+        @Override
+        public long getInputVoltage() {
+            return voltage;
+        }
+    }
+
+    /**
+     * A world without chunks. Blocks below it read as air, and changes to them are ignored.
+     */
+    static class SimulatedWorld extends World {
+
+        SimulatedWorld() {
+            super(null, new WorldInfo(new WorldSettings(0L, GameType.SURVIVAL, false, false, WorldType.DEFAULT), "simulator"),
+                  new WorldProviderSurface(), new Profiler(), false);
+            // Chanced outputs give the same totals on every run
+            rand.setSeed(0L);
+        }
+
+        @Override
+        protected IChunkProvider createChunkProvider() {
+            return null;
+        }
+
+        @Override
+        protected boolean isChunkLoaded(int x, int z, boolean allowEmpty) {
+            return false;
+        }
+    }
+
+    /**
+     * A controller whose structure is made of the stub parts.
+     */
+    private interface SimulatedController {
+
+        /** Forms the structure from the stub parts */
+        void form();
+
+        void click(String componentData);
+
+        /** @return the recipe logic of the controller, one per lane of a Processing Array */
+        List<? extends AbstractRecipeLogic> getWorkables();
+    }
+
+    private static class SimulatedProcessingArray extends TileEntityProcessingArray implements SimulatedController {
+        private final Abilities abilities;
+        private final ProcessingArrayMachineRegistry.MachineEntry machineEntry;
+        private boolean formed = false;
+
+        SimulatedProcessingArray(Abilities abilities, RecipeMap<?> machineRecipes, int tier) {
+            super(new ResourceLocation(Tags.MODID, "simulated_processing_array"));
+            this.abilities = abilities;
+            this.machineEntry = new ProcessingArrayMachineRegistry.MachineEntry(null, machineRecipes, null, tier, true);
+        }
+
+        @Override
+        protected ProcessingArrayMachineRegistry.MachineEntry getMachineEntry(ItemStack machineStack) {
+            return machineStack.isEmpty() ? null : machineEntry;
+        }
+
+        @Override
+        public void form() {
+            formed = true;
+            formStructure(new PatternMatchContext());
+        }
+
+        @Override
+        public void click(String componentData) {
+            handleDisplayClick(componentData, null);
+        }
+
+        @Override
+        public List<? extends AbstractRecipeLogic> getWorkables() {
+            List<AbstractRecipeLogic> lanes = new ArrayList<>();
+            for(int i = 0; i < abilities.get(GACapabilities.PA_MACHINE_CONTAINER).size(); i++)
+                lanes.add(getLane(i));
+            return lanes;
+        }
+
+        @Override
+        public <T> List<T> getAbilities(MultiblockAbility<T> ability) {
+            return abilities == null ? Collections.emptyList() : abilities.get(ability);
+        }
+
+        @Override
+        public boolean isStructureFormed() {
+            return formed;
+        }
+
+        @Override
+        protected void checkStructurePattern() {}
+
+        @Override
+        protected BlockPattern createStructurePattern() {
+            return null;
+        }
+
+        @Override
+        public MetaTileEntity createMetaTileEntity(MetaTileEntityHolder holder) {
+            return this;
+        }
+    }
+
+    private static class SimulatedAssemblyLine extends TileEntityAssemblyLine implements SimulatedController {
+        private final Abilities abilities;
+        private boolean formed = false;
+
+        SimulatedAssemblyLine(Abilities abilities) {
+            super(new ResourceLocation(Tags.MODID, "simulated_assembly_line"));
+            this.abilities = abilities;
+        }
+
+        @Override
+        protected List<IItemHandlerModifiable> getInputBusesInSliceOrder() {
+            // The slices are added in order
+            return getAbilities(MultiblockAbility.IMPORT_ITEMS);
+        }
+
+        @Override
+        public void form() {
+            formed = true;
+            formStructure(new PatternMatchContext());
+        }
+
+        @Override
+        public void click(String componentData) {
+            handleDisplayClick(componentData, null);
+        }
+
+        @Override
+        public List<? extends AbstractRecipeLogic> getWorkables() {
+            return Collections.singletonList(recipeMapWorkable);
+        }
+
+        @Override
+        public <T> List<T> getAbilities(MultiblockAbility<T> ability) {
+            return abilities == null ? Collections.emptyList() : abilities.get(ability);
+        }
+
+        @Override
+        public boolean isStructureFormed() {
+            return formed;
+        }
+
+        @Override
+        protected void checkStructurePattern() {}
+
+        @Override
+        protected BlockPattern createStructurePattern() {
+            return null;
+        }
+
+        @Override
+        public MetaTileEntity createMetaTileEntity(MetaTileEntityHolder holder) {
+            return this;
+        }
+    }
+
+    private static class SimulatedFusionReactor extends TileEntityFusionReactor implements SimulatedController {
+        private final Abilities abilities;
+        private boolean formed = false;
+
+        SimulatedFusionReactor(Abilities abilities, int tier) {
+            super(new ResourceLocation(Tags.MODID, "simulated_fusion_reactor"), tier);
+            this.abilities = abilities;
+        }
+
+        @Override
+        public void form() {
+            formed = true;
+            formStructure(new PatternMatchContext());
+        }
+
+        @Override
+        public void click(String componentData) {
+            handleDisplayClick(componentData, null);
+        }
+
+        @Override
+        public List<? extends AbstractRecipeLogic> getWorkables() {
+            return Collections.singletonList(recipeMapWorkable);
+        }
+
+        @Override
+        public <T> List<T> getAbilities(MultiblockAbility<T> ability) {
+            return abilities == null ? Collections.emptyList() : abilities.get(ability);
+        }
+
+        @Override
+        public boolean isStructureFormed() {
+            return formed;
+        }
+
+        @Override
+        protected void checkStructurePattern() {}
+
+        @Override
+        protected BlockPattern createStructurePattern() {
+            return null;
+        }
+
+        @Override
+        public MetaTileEntity createMetaTileEntity(MetaTileEntityHolder holder) {
+            return this;
+        }
+    }
+}
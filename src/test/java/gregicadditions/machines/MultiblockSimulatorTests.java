@@ -0,0 +1,321 @@
+package gregicadditions.machines;
+
+import gregicadditions.GAConfig;
+import gregicadditions.recipes.GARecipeMaps;
+import gregtech.api.GTValues;
+import gregtech.api.recipes.RecipeMap;
+import gregtech.api.recipes.RecipeMaps;
+import gregtech.api.recipes.builders.SimpleRecipeBuilder;
+import net.minecraft.init.*;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidRegistry;
+import net.minecraftforge.fluids.FluidStack;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Throughput regression tests, running the real controllers through {@link MultiblockSimulator}.
+ */
+public class MultiblockSimulatorTests {
+
+    /** One minute of game time */
+    private static final int TICKS = 1200;
+
+    private static RecipeMap<SimpleRecipeBuilder> machineRecipes;
+
+    @BeforeAll
+    public static void bootStrap() {
+        Bootstrap.register();
+
+        machineRecipes = new RecipeMap<>("simulator_machine", 0, 1, 0, 1, 0, 0, 0, 0, new SimpleRecipeBuilder());
+        machineRecipes.recipeBuilder()
+                      .inputs(new ItemStack(Items.PAPER))
+                      .outputs(new ItemStack(Items.BOOK))
+                      .EUt(30)
+                      .duration(100)
+                      .buildAndRegister();
+        machineRecipes.recipeBuilder()
+                      .inputs(new ItemStack(Items.FEATHER))
+                      .outputs(new ItemStack(Items.ARROW))
+                      .EUt(30)
+                      .duration(100)
+                      .buildAndRegister();
+        machineRecipes.recipeBuilder()
+                      .inputs(new ItemStack(Items.CLAY_BALL))
+                      .outputs(new ItemStack(Items.BRICK))
+                      .EUt(30)
+                      .duration(20)
+                      .buildAndRegister();
+
+        GARecipeMaps.ASSEMBLY_LINE_RECIPES.recipeBuilder()
+                                          .inputs(new ItemStack(Items.PAPER), new ItemStack(Items.LEATHER),
+                                                  new ItemStack(Items.FEATHER), new ItemStack(Items.STRING))
+                                          .outputs(new ItemStack(Items.WRITABLE_BOOK))
+                                          .EUt(120)
+                                          .duration(200)
+                                          .buildAndRegister();
+
+        // Needs more heat than a Mark 1 reactor holds
+        RecipeMaps.FUSION_RECIPES.recipeBuilder()
+                                 .fluidInputs(new FluidStack(FluidRegistry.WATER, 125), new FluidStack(FluidRegistry.LAVA, 125))
+                                 .fluidOutputs(new FluidStack(FluidRegistry.WATER, 125))
+                                 .EUToStart(15_000_000)
+                                 .EUt(4096)
+                                 .duration(32)
+                                 .buildAndRegister();
+    }
+
+    private static MultiblockSimulator array(ItemStack supply) {
+        return MultiblockSimulator.processingArray(machineRecipes, GTValues.V[GTValues.LV])
+                                  .inputBuses(1, 16)
+                                  .outputBuses(1, 16)
+                                  .supply(supply);
+    }
+
+    private static MultiblockSimulator paperArray(int machines) {
+        return array(new ItemStack(Items.PAPER, 64)).machines(machines);
+    }
+
+    @Test
+    public void processing_array_runs_every_machine_each_cycle() {
+        MultiblockSimulator.Result result = paperArray(16).run(TICKS);
+
+        // Recipes complete every 100 ticks, and the next one starts in the same tick
+        assertEquals(11 * 16, result.itemsProduced);
+        assertTrue(result.euConsumed >= 11 * 100 * 16 * 30);
+        assertTrue(result.euConsumed <= 12 * 100 * 16 * 30);
+        assertEquals(0, result.idleTicks);
+        assertEquals(0, result.jamEvents);
+    }
+
+    @Test
+    public void processing_array_throughput_scales_with_machines() {
+        MultiblockSimulator.Result four = paperArray(4).run(TICKS);
+        MultiblockSimulator.Result sixteen = paperArray(16).run(TICKS);
+
+        assertEquals(4 * four.itemsProduced, sixteen.itemsProduced);
+    }
+
+    @Test
+    public void processing_array_runs_each_machine_interface_as_a_lane() {
+        MultiblockSimulator.Result oneLane = paperArray(16).run(TICKS);
+        MultiblockSimulator.Result splitLanes = paperArray(8).machines(8).run(TICKS);
+        MultiblockSimulator.Result twoLanes = paperArray(16).machines(16).run(TICKS);
+
+        assertEquals(oneLane.itemsProduced, splitLanes.itemsProduced);
+        assertEquals(2 * oneLane.itemsProduced, twoLanes.itemsProduced);
+    }
+
+    @Test
+    public void processing_array_is_held_back_by_its_energy_supply() {
+        // Half of what 16 machines draw
+        MultiblockSimulator.Result result = paperArray(16).energy(100_000, 16 * 30 / 2, 0).run(TICKS);
+
+        assertTrue(result.itemsProduced > 0);
+        assertTrue(result.itemsProduced < paperArray(16).run(TICKS).itemsProduced);
+        assertTrue(result.euConsumed <= (long) TICKS * 16 * 30 / 2);
+    }
+
+    @Test
+    public void processing_array_shrinks_a_batch_to_the_energy_stored() {
+        // A full batch needs 48000 EU up front; 30000 covers 10 operations
+        MultiblockSimulator.Result result = paperArray(16).energy(100_000, 0, 30_000).run(TICKS);
+
+        assertEquals(10, result.itemsProduced);
+        assertEquals(30_000, result.euConsumed);
+    }
+
+    @Test
+    public void processing_array_stops_when_outputs_are_full() {
+        MultiblockSimulator.Result result = MultiblockSimulator.processingArray(machineRecipes, GTValues.V[GTValues.LV])
+                                                               .machines(16)
+                                                               .inputBuses(1, 16)
+                                                               .outputBuses(1, 1)
+                                                               .supply(new ItemStack(Items.PAPER, 64))
+                                                               .drainOutputs(false)
+                                                               .run(TICKS);
+
+        // Four cycles of 16 fill a single slot
+        assertEquals(64, result.itemsProduced);
+        assertTrue(result.getIdlePercent() > 50);
+    }
+
+    @Test
+    public void processing_array_shrinks_a_batch_to_the_output_space() {
+        MultiblockSimulator.Result result = MultiblockSimulator.processingArray(machineRecipes, GTValues.V[GTValues.LV])
+                                                               .machines(12)
+                                                               .inputBuses(1, 16)
+                                                               .outputBuses(1, 1)
+                                                               .supply(new ItemStack(Items.PAPER, 64))
+                                                               .drainOutputs(false)
+                                                               .run(TICKS);
+
+        // Five cycles of 12, then one of the 4 that still fit
+        assertEquals(64, result.itemsProduced);
+    }
+
+    @Test
+    public void processing_array_ignores_recipes_above_its_machine_voltage() {
+        MultiblockSimulator.Result result = MultiblockSimulator.processingArray(machineRecipes, GTValues.V[GTValues.ULV])
+                                                               .machines(16)
+                                                               .inputBuses(1, 16)
+                                                               .outputBuses(1, 16)
+                                                               .supply(new ItemStack(Items.PAPER, 64))
+                                                               .run(TICKS);
+
+        assertEquals(0, result.itemsProduced);
+        assertEquals(TICKS, result.idleTicks);
+    }
+
+    @Test
+    public void processing_array_batch_mode_runs_longer_cycles() {
+        // Stocked so that the first batch is a full one too
+        MultiblockSimulator.Result single = array(new ItemStack(Items.CLAY_BALL, 64)).machines(16)
+                                                                                   .stock(new ItemStack(Items.CLAY_BALL, 128))
+                                                                                   .run(TICKS);
+        MultiblockSimulator.Result batched = array(new ItemStack(Items.CLAY_BALL, 64)).machines(16)
+                                                                                    .stock(new ItemStack(Items.CLAY_BALL, 128))
+                                                                                    .click("batch")
+                                                                                    .run(TICKS);
+
+        // 20 tick recipes: 59 cycles of 16 complete in a minute
+        assertEquals(59 * 16, single.itemsProduced);
+        // Each machine runs 7 operations per cycle to reach the minimum cycle length of 128 ticks, so a cycle takes
+        // 140 ticks and 8 of them complete
+        assertEquals(8 * 7 * 16, batched.itemsProduced);
+        assertEquals(0, batched.idleTicks);
+    }
+
+    @Test
+    public void processing_array_starts_the_next_recipe_the_tick_one_completes() {
+        MultiblockSimulator.Result result = paperArray(16).run(TICKS);
+
+        assertEquals(11 * 16, result.itemsProduced);
+        assertEquals(0, result.idleTicks);
+    }
+
+    @Test
+    public void processing_array_packing_mode_fills_idle_machines_with_other_recipes() {
+        MultiblockSimulator unpacked = MultiblockSimulator.processingArray(machineRecipes, GTValues.V[GTValues.LV])
+                                                          .machines(16)
+                                                          .inputBuses(1, 16)
+                                                          .outputBuses(1, 16)
+                                                          .stock(new ItemStack(Items.PAPER, 8))
+                                                          .stock(new ItemStack(Items.FEATHER, 8));
+        MultiblockSimulator packed = MultiblockSimulator.processingArray(machineRecipes, GTValues.V[GTValues.LV])
+                                                        .machines(16)
+                                                        .inputBuses(1, 16)
+                                                        .outputBuses(1, 16)
+                                                        .stock(new ItemStack(Items.PAPER, 8))
+                                                        .stock(new ItemStack(Items.FEATHER, 8))
+                                                        .click("packing");
+
+        // Long enough for one cycle only
+        assertEquals(8, unpacked.run(150).itemsProduced);
+        assertEquals(16, packed.run(150).itemsProduced);
+    }
+
+    private static MultiblockSimulator assemblyLine(int sets) {
+        MultiblockSimulator simulator = MultiblockSimulator.assemblyLine(GTValues.V[GTValues.MV]).outputBuses(1, 1);
+        for(int i = 0; i < sets; i++)
+            simulator.slice(new ItemStack(Items.PAPER))
+                     .slice(new ItemStack(Items.LEATHER))
+                     .slice(new ItemStack(Items.FEATHER))
+                     .slice(new ItemStack(Items.STRING));
+        return simulator;
+    }
+
+    @Test
+    public void assembly_line_does_nothing_without_enough_slices() {
+        MultiblockSimulator.Result result = MultiblockSimulator.assemblyLine(GTValues.V[GTValues.MV])
+                                                               .slice(new ItemStack(Items.PAPER))
+                                                               .slice(new ItemStack(Items.LEATHER))
+                                                               .slice(new ItemStack(Items.FEATHER))
+                                                               .outputBuses(1, 1)
+                                                               .run(TICKS);
+
+        assertEquals(0, result.itemsProduced);
+        assertEquals(TICKS, result.idleTicks);
+    }
+
+    @Test
+    public void assembly_line_with_enough_slices_runs() {
+        MultiblockSimulator.Result result = assemblyLine(1).run(TICKS);
+
+        // 200 tick recipes
+        assertEquals(5, result.itemsProduced);
+        assertEquals(0, result.idleTicks);
+        assertEquals(0, result.jamEvents);
+    }
+
+    @Test
+    public void pipelined_assembly_line_takes_a_recipe_per_slice_time() {
+        MultiblockSimulator.Result serial = assemblyLine(1).run(TICKS);
+        MultiblockSimulator.Result pipelined = assemblyLine(1).click("pipeline").run(TICKS);
+
+        // A recipe enters every 50 ticks rather than every 200, once the first has gone through
+        assertTrue(pipelined.itemsProduced > 3 * serial.itemsProduced);
+        assertTrue(pipelined.itemsProduced <= TICKS / 50);
+    }
+
+    @Test
+    public void assembly_line_runs_a_copy_for_each_further_set_of_slices() {
+        boolean parallel = GAConfig.multiblocks.assemblyLineParallel;
+        try {
+            GAConfig.multiblocks.assemblyLineParallel = true;
+            MultiblockSimulator.Result parallelRun = assemblyLine(2).run(TICKS);
+            GAConfig.multiblocks.assemblyLineParallel = false;
+            MultiblockSimulator.Result serialRun = assemblyLine(2).run(TICKS);
+
+            assertEquals(5, serialRun.itemsProduced);
+            assertEquals(2 * serialRun.itemsProduced, parallelRun.itemsProduced);
+        } finally {
+            GAConfig.multiblocks.assemblyLineParallel = parallel;
+        }
+    }
+
+    @Test
+    public void assembly_line_copies_are_limited_by_the_energy_hatch() {
+        // Two amps of MV cover two copies at 120 EU/t, not three
+        MultiblockSimulator.Result result = assemblyLine(3).run(TICKS);
+
+        assertEquals(2 * 5, result.itemsProduced);
+    }
+
+    private static MultiblockSimulator fusionReactor(int tier, long euPerTick) {
+        return MultiblockSimulator.fusionReactor(tier)
+                                  .inputTanks(2, 16000)
+                                  .outputTanks(1, 16000)
+                                  .supply(new FluidStack(FluidRegistry.WATER, 1000))
+                                  .supply(new FluidStack(FluidRegistry.LAVA, 1000))
+                                  .energy(Long.MAX_VALUE, euPerTick, 0);
+    }
+
+    @Test
+    public void fusion_reactor_heats_up_before_running() {
+        MultiblockSimulator.Result result = fusionReactor(GTValues.ZPM, 1_000_000).run(TICKS);
+
+        assertTrue(result.fluidProduced > 0);
+        // Heating up to 15M EU at 1M EU/t keeps it idle for the first ticks
+        assertTrue(result.idleTicks >= 10);
+        assertTrue(result.idleTicks < TICKS / 2);
+        assertTrue(result.euConsumed >= 15_000_000);
+    }
+
+    @Test
+    public void fusion_reactor_cannot_run_recipes_hotter_than_it_holds() {
+        MultiblockSimulator.Result result = fusionReactor(GTValues.LuV, 1_000_000).run(TICKS);
+
+        assertEquals(0, result.fluidProduced);
+        assertEquals(TICKS, result.idleTicks);
+    }
+
+    @Test
+    public void fusion_reactor_without_energy_does_nothing() {
+        MultiblockSimulator.Result result = fusionReactor(GTValues.ZPM, 0).run(TICKS);
+
+        assertEquals(0, result.fluidProduced);
+        assertEquals(0, result.euConsumed);
+    }
+}
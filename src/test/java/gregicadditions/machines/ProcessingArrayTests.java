@@ -1,8 +1,22 @@
 package gregicadditions.machines;
 
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeMap;
+import gregtech.api.recipes.builders.SimpleRecipeBuilder;
+import gregtech.api.util.ItemStackHashStrategy;
+import gregtech.api.util.ValidationResult;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenCustomHashMap;
 import net.minecraft.init.*;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidRegistry;
+import net.minecraftforge.fluids.FluidStack;
 import org.junit.jupiter.api.*;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -13,9 +27,93 @@ public class ProcessingArrayTests {
     /**
      * Required. Without this all item-related operations will fail because registries haven't been initialized.
      */
+    private static RecipeMap<SimpleRecipeBuilder> recipeMap;
+
     @BeforeAll
     public static void bootStrap() {
         Bootstrap.register();
+        recipeMap = new RecipeMap<>("processing_array_tests", 0, 2, 0, 1, 0, 0, 0, 0, new SimpleRecipeBuilder());
+    }
+
+    private static Recipe moldedRecipe() {
+        return recipeMap.recipeBuilder()
+                        .inputs(new ItemStack(Items.IRON_INGOT, 2))
+                        .notConsumable(new ItemStack(Items.BUCKET))
+                        .outputs(new ItemStack(Items.IRON_NUGGET))
+                        .EUt(30)
+                        .duration(20)
+                        .build()
+                        .getResult();
+    }
+
+    private static Object2IntOpenCustomHashMap<ItemStack> counts(ItemStack... stacks) {
+        Object2IntOpenCustomHashMap<ItemStack> counts = new Object2IntOpenCustomHashMap<>(ItemStackHashStrategy.comparingAllButCount());
+        for(ItemStack stack : stacks)
+            counts.addTo(stack, stack.getCount());
+        return counts;
+    }
+
+    @Test
+    public void min_ratio_item_is_limited_by_inputs_and_machines() {
+        Recipe recipe = moldedRecipe();
+
+        assertEquals(5, TileEntityProcessingArray.ProcessingArrayWorkable.getMinRatioItem(
+            counts(new ItemStack(Items.IRON_INGOT, 10), new ItemStack(Items.BUCKET)), recipe, 16));
+        assertEquals(3, TileEntityProcessingArray.ProcessingArrayWorkable.getMinRatioItem(
+            counts(new ItemStack(Items.IRON_INGOT, 10), new ItemStack(Items.BUCKET)), recipe, 3));
+    }
+
+    @Test
+    public void min_ratio_item_is_zero_when_an_input_is_missing() {
+        Recipe recipe = moldedRecipe();
+
+        assertEquals(0, TileEntityProcessingArray.ProcessingArrayWorkable.getMinRatioItem(counts(), recipe, 16));
+        assertEquals(0, TileEntityProcessingArray.ProcessingArrayWorkable.getMinRatioItem(
+            counts(new ItemStack(Items.BUCKET)), recipe, 16));
+    }
+
+    @Test
+    public void min_ratio_item_is_zero_when_a_non_consumed_input_is_missing() {
+        Recipe recipe = moldedRecipe();
+
+        assertEquals(0, TileEntityProcessingArray.ProcessingArrayWorkable.getMinRatioItem(
+            counts(new ItemStack(Items.IRON_INGOT, 10)), recipe, 16));
+    }
+
+    @Test
+    public void fluid_dependencies_follow_a_recipe_replaced_by_another() {
+        RecipeMap<SimpleRecipeBuilder> fluidRecipeMap = new RecipeMap<>("processing_array_fluid_tests", 0, 1, 0, 1, 0, 1, 0, 0, new SimpleRecipeBuilder());
+        ValidationResult<Recipe> paper = fluidRecipeMap.recipeBuilder()
+                                                       .inputs(new ItemStack(Items.PAPER))
+                                                       .fluidInputs(new FluidStack(FluidRegistry.WATER, 100))
+                                                       .outputs(new ItemStack(Items.BOOK))
+                                                       .EUt(30)
+                                                       .duration(20)
+                                                       .build();
+        fluidRecipeMap.addRecipe(paper);
+
+        Set<Fluid> fluids = new HashSet<>();
+        ProcessingArrayMachineRegistry.getFluidDependencies(fluidRecipeMap)
+                                      .collect(Collections.singleton(new ItemStack(Items.PAPER)), fluids);
+        assertEquals(Collections.singleton(FluidRegistry.WATER), fluids);
+
+        // Same number of recipes as before
+        fluidRecipeMap.removeRecipe(paper.getResult());
+        fluidRecipeMap.addRecipe(fluidRecipeMap.recipeBuilder()
+                                               .inputs(new ItemStack(Items.FEATHER))
+                                               .fluidInputs(new FluidStack(FluidRegistry.LAVA, 100))
+                                               .outputs(new ItemStack(Items.ARROW))
+                                               .EUt(30)
+                                               .duration(20)
+                                               .build());
+
+        fluids.clear();
+        ProcessingArrayMachineRegistry.getFluidDependencies(fluidRecipeMap)
+                                      .collect(Collections.singleton(new ItemStack(Items.PAPER)), fluids);
+        assertTrue(fluids.isEmpty());
+        ProcessingArrayMachineRegistry.getFluidDependencies(fluidRecipeMap)
+                                      .collect(Collections.singleton(new ItemStack(Items.FEATHER)), fluids);
+        assertEquals(Collections.singleton(FluidRegistry.LAVA), fluids);
     }
 
     @Test
@@ -0,0 +1,100 @@
+package gregicadditions.recipes;
+
+import gregtech.api.recipes.Recipe;
+import gregtech.api.recipes.RecipeMap;
+import gregtech.api.recipes.builders.SimpleRecipeBuilder;
+import net.minecraft.init.*;
+import net.minecraft.item.ItemStack;
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the ordered lookup of Assembly Line recipes.
+ */
+public class AssemblyLineRecipeIndexTests {
+
+    private static RecipeMap<SimpleRecipeBuilder> recipeMap;
+
+    @BeforeAll
+    public static void bootStrap() {
+        Bootstrap.register();
+        recipeMap = new RecipeMap<>("assembly_line_index_tests", 0, 16, 0, 1, 0, 0, 0, 0, new SimpleRecipeBuilder());
+    }
+
+    private static Recipe recipe(int EUt, ItemStack... inputs) {
+        return recipeMap.recipeBuilder()
+                        .inputs(inputs)
+                        .outputs(new ItemStack(Items.BOOK))
+                        .EUt(EUt)
+                        .duration(20)
+                        .build()
+                        .getResult();
+    }
+
+    private static Recipe find(List<Recipe> recipes, long voltage, ItemStack... slices) {
+        return new AssemblyLineRecipeIndex().find(voltage, Arrays.asList(slices), Collections.emptyList(), recipes);
+    }
+
+    @Test
+    public void finds_inputs_in_slice_order_only() {
+        Recipe recipe = recipe(30, new ItemStack(Items.PAPER), new ItemStack(Items.LEATHER));
+        List<Recipe> recipes = Collections.singletonList(recipe);
+
+        assertSame(recipe, find(recipes, 32, new ItemStack(Items.PAPER), new ItemStack(Items.LEATHER)));
+        assertNull(find(recipes, 32, new ItemStack(Items.LEATHER), new ItemStack(Items.PAPER)));
+    }
+
+    @Test
+    public void prefers_the_recipe_using_the_most_slices() {
+        Recipe shorter = recipe(30, new ItemStack(Items.PAPER));
+        Recipe longer = recipe(30, new ItemStack(Items.PAPER), new ItemStack(Items.LEATHER));
+        List<Recipe> recipes = Arrays.asList(shorter, longer);
+
+        assertSame(longer, find(recipes, 32, new ItemStack(Items.PAPER), new ItemStack(Items.LEATHER)));
+        assertSame(shorter, find(recipes, 32, new ItemStack(Items.PAPER), new ItemStack(Items.STICK)));
+    }
+
+    @Test
+    public void skips_recipes_needing_more_than_the_voltage() {
+        Recipe shorter = recipe(30, new ItemStack(Items.PAPER));
+        Recipe longer = recipe(512, new ItemStack(Items.PAPER), new ItemStack(Items.LEATHER));
+        List<Recipe> recipes = Arrays.asList(shorter, longer);
+
+        assertSame(shorter, find(recipes, 32, new ItemStack(Items.PAPER), new ItemStack(Items.LEATHER)));
+        assertSame(longer, find(recipes, 512, new ItemStack(Items.PAPER), new ItemStack(Items.LEATHER)));
+    }
+
+    @Test
+    public void matches_in_order_checks_each_input_against_its_own_slice() {
+        Recipe recipe = recipe(30, new ItemStack(Items.PAPER, 2), new ItemStack(Items.LEATHER));
+
+        assertTrue(AssemblyLineRecipeIndex.matchesInOrder(recipe,
+            Arrays.asList(new ItemStack(Items.PAPER, 2), new ItemStack(Items.LEATHER))));
+        // Slices past the recipe's inputs are ignored
+        assertTrue(AssemblyLineRecipeIndex.matchesInOrder(recipe,
+            Arrays.asList(new ItemStack(Items.PAPER, 64), new ItemStack(Items.LEATHER), new ItemStack(Items.STICK))));
+
+        assertFalse(AssemblyLineRecipeIndex.matchesInOrder(recipe,
+            Arrays.asList(new ItemStack(Items.LEATHER), new ItemStack(Items.PAPER, 2))));
+        assertFalse(AssemblyLineRecipeIndex.matchesInOrder(recipe,
+            Arrays.asList(new ItemStack(Items.PAPER), new ItemStack(Items.LEATHER))));
+        assertFalse(AssemblyLineRecipeIndex.matchesInOrder(recipe,
+            Arrays.asList(new ItemStack(Items.PAPER, 2), ItemStack.EMPTY)));
+        assertFalse(AssemblyLineRecipeIndex.matchesInOrder(recipe,
+            Collections.singletonList(new ItemStack(Items.PAPER, 2))));
+    }
+
+    @Test
+    public void checks_counts_of_each_slice() {
+        Recipe recipe = recipe(30, new ItemStack(Items.PAPER, 4), new ItemStack(Items.LEATHER));
+        List<Recipe> recipes = Collections.singletonList(recipe);
+
+        assertSame(recipe, find(recipes, 32, new ItemStack(Items.PAPER, 4), new ItemStack(Items.LEATHER)));
+        assertNull(find(recipes, 32, new ItemStack(Items.PAPER, 3), new ItemStack(Items.LEATHER)));
+    }
+}